@@ -0,0 +1,98 @@
+package com.donaciones.donacionesbackend.benchmark;
+
+import com.donaciones.donacionesbackend.dto.PuntoCrearRequest;
+import com.donaciones.donacionesbackend.entity.EstadoPunto;
+import com.donaciones.donacionesbackend.entity.PuntoDonacion;
+import com.donaciones.donacionesbackend.entity.Rol;
+import com.donaciones.donacionesbackend.util.MapeoPuntos;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * alta de un punto desde el JSON del pedido hasta la entidad: el binding viejo (Map y casteos a mano,
+ * como hacía crearPunto antes de los pedidos tipados) contra PuntoCrearRequest + MapeoPuntos,
+ * cada uno con y sin Blackbird. Se corre con mvn -Pbenchmark test-compile exec:exec
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BindingPuntosBenchmark {
+
+    // Lo que manda la pantalla de la organización al cargar un punto
+    private static final byte[] CUERPO = ("{\"nombre\":\"Parroquia San Roque\",\"direccion\":\"Av. Colón 1234, Córdoba\"," +
+        "\"latitud\":-31.4135,\"longitud\":-64.1811,\"tipoDonacion\":\"ropa,alimentos,juguetes\"," +
+        "\"horarioApertura\":\"09:00\",\"horarioCierre\":\"18:30\",\"telefono\":\"+54 351 555-1234\"," +
+        "\"email\":\"contacto@sanroque.org\",\"usuarioCreadorId\":42,\"tipoCreador\":\"ORGANIZACION\"}")
+        .getBytes(StandardCharsets.UTF_8);
+
+    private static final TypeReference<Map<String, Object>> MAPA = new TypeReference<>() {};
+
+    @Param({"false", "true"})
+    public boolean blackbird;
+
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void preparar() {
+        // Los mismos módulos que registra Spring (java.time entre ellos)
+        JsonMapper.Builder builder = JsonMapper.builder().findAndAddModules();
+        if (blackbird) {
+            builder.addModule(new BlackbirdModule());
+        }
+        objectMapper = builder.build();
+    }
+
+    @Benchmark
+    public PuntoDonacion mapa() throws IOException {
+        Map<String, Object> puntoData = objectMapper.readValue(CUERPO, MAPA);
+        PuntoDonacion punto = new PuntoDonacion();
+        punto.setNombre((String) puntoData.get("nombre"));
+        punto.setDireccion((String) puntoData.get("direccion"));
+        punto.setLatitud(((Number) puntoData.get("latitud")).doubleValue());
+        punto.setLongitud(((Number) puntoData.get("longitud")).doubleValue());
+        punto.setTipoDonacion((String) puntoData.get("tipoDonacion"));
+        punto.setTelefono((String) puntoData.get("telefono"));
+        punto.setEmail((String) puntoData.get("email"));
+        punto.setHorarioApertura(puntoData.get("horarioApertura") != null ?
+            LocalTime.parse((String) puntoData.get("horarioApertura")) : null);
+        punto.setHorarioCierre(puntoData.get("horarioCierre") != null ?
+            LocalTime.parse((String) puntoData.get("horarioCierre")) : null);
+        punto.setActivo(true);
+        if (puntoData.containsKey("usuarioCreadorId") && puntoData.containsKey("tipoCreador")) {
+            Rol tipoCreador = Rol.valueOf((String) puntoData.get("tipoCreador"));
+            punto.setUsuarioCreadorId(((Number) puntoData.get("usuarioCreadorId")).longValue());
+            punto.setTipoCreador(tipoCreador);
+            punto.setEstado(tipoCreador == Rol.ORGANIZACION ? EstadoPunto.PENDIENTE : EstadoPunto.ACTIVO);
+        } else {
+            punto.setEstado(EstadoPunto.ACTIVO);
+        }
+        return punto;
+    }
+
+    @Benchmark
+    public PuntoDonacion tipado() throws IOException {
+        return MapeoPuntos.nuevoPunto(objectMapper.readValue(CUERPO, PuntoCrearRequest.class));
+    }
+}
@@ -2,12 +2,14 @@ package com.donaciones.donacionesbackend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * punto de entrada del backend de la tesis
  * acá arranca Spring Boot y carga todos los componentes del sistema de donaciones
  */
 @SpringBootApplication
+@EnableScheduling // tareas periódicas: heartbeat del stream SSE y reconciliación del resumen de organizaciones
 public class DonacionesBackendApplication {
 
 	/** lo uso para levantar la aplicación cuando corro el servidor local o en producción */
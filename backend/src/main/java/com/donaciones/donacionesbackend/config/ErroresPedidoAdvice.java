@@ -0,0 +1,38 @@
+package com.donaciones.donacionesbackend.config;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+/**
+ * errores del cuerpo del pedido que se responden igual en todos los controladores: 400 con {"error": ...}
+ * lo propio de cada controlador (ej. IllegalArgumentException en DonacionController) sigue en el controlador
+ */
+@RestControllerAdvice
+public class ErroresPedidoAdvice {
+
+    // Un campo con tipo o formato inválido (ej. latitud "abc", cantidad "abc", horario "25:00") es un 400, no un 500
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Map<String, String>> manejarJsonInvalido(HttpMessageNotReadableException e) {
+        // Si Jackson sabe qué campo falló, digo cuál; el mensaje completo trae detalles internos
+        if (e.getCause() instanceof JsonMappingException mapeo && !mapeo.getPath().isEmpty()) {
+            String campo = mapeo.getPath().get(mapeo.getPath().size() - 1).getFieldName();
+            return ResponseEntity.badRequest().body(Map.of("error", campo + ": valor inválido"));
+        }
+        return ResponseEntity.badRequest().body(Map.of("error", "JSON inválido"));
+    }
+
+    // Lo que no pasa las validaciones de los pedidos (@NotBlank, @NotNull, rangos, cantidad positiva, etc.)
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<Map<String, String>> manejarValidacion(MethodArgumentNotValidException e) {
+        FieldError error = e.getBindingResult().getFieldError();
+        String mensaje = error != null ? error.getField() + ": " + error.getDefaultMessage() : "pedido inválido";
+        return ResponseEntity.badRequest().body(Map.of("error", mensaje));
+    }
+}
@@ -0,0 +1,92 @@
+package com.donaciones.donacionesbackend.config;
+
+import org.springframework.stereotype.Component;
+
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+
+/**
+ * Tomcat solo respeta server.compression.min-response-size si sabe el largo de la respuesta, y eso lo
+ * calcula al cerrarla si todavía está entera en su buffer. Jackson hace flush al terminar de escribir,
+ * lo que manda los headers sin Content-Length y hacía comprimir también los JSON chicos.
+ * Este filtro ignora esos flush mientras el pedido no es asíncrono; el SSE y las descargas
+ * (que sí necesitan mandar de a partes) escriben con el pedido asíncrono ya iniciado
+ */
+@Component
+public class LargoRespuestaFilter implements Filter {
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) req;
+        chain.doFilter(req, new SinFlushAnticipado(request, (HttpServletResponse) res));
+    }
+
+    private static class SinFlushAnticipado extends HttpServletResponseWrapper {
+        private final HttpServletRequest request;
+        private ServletOutputStream salida;
+
+        SinFlushAnticipado(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (salida == null) {
+                salida = new Salida(super.getOutputStream());
+            }
+            return salida;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (request.isAsyncStarted()) {
+                super.flushBuffer();
+            }
+        }
+
+        private class Salida extends ServletOutputStream {
+            private final ServletOutputStream destino;
+
+            Salida(ServletOutputStream destino) {
+                this.destino = destino;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                destino.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                destino.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (request.isAsyncStarted()) {
+                    destino.flush();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                destino.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return destino.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                destino.setWriteListener(writeListener);
+            }
+        }
+    }
+}
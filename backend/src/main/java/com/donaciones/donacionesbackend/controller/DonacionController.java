@@ -0,0 +1,306 @@
+package com.donaciones.donacionesbackend.controller;
+
+import com.donaciones.donacionesbackend.dto.CambioEstadoRequest;
+import com.donaciones.donacionesbackend.dto.DonacionRequest;
+import com.donaciones.donacionesbackend.dto.ResultadoTransicion;
+import com.donaciones.donacionesbackend.dto.TransicionLoteRequest;
+import com.donaciones.donacionesbackend.entity.Donacion;
+import com.donaciones.donacionesbackend.entity.EstadoDonacion;
+import com.donaciones.donacionesbackend.repository.DonacionRepository;
+import com.donaciones.donacionesbackend.service.ArchivoDonacionesService;
+import com.donaciones.donacionesbackend.service.ContadoresDonacionesService;
+import com.donaciones.donacionesbackend.service.EstadisticasDonacionesService;
+import com.donaciones.donacionesbackend.service.ExportacionPuntosService;
+import com.donaciones.donacionesbackend.service.IngestaDonacionesService;
+import com.donaciones.donacionesbackend.service.ReporteDonacionesService;
+import com.donaciones.donacionesbackend.service.TransicionDonacionesService;
+import com.donaciones.donacionesbackend.util.PaginacionPuntos;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+//Controlador de donaciones
+@RestController
+@RequestMapping("/donaciones")
+@CrossOrigin(origins = "*")
+public class DonacionController {
+
+    @Autowired
+    private IngestaDonacionesService ingestaDonacionesService;
+
+    @Autowired
+    private EstadisticasDonacionesService estadisticasDonacionesService;
+
+    @Autowired
+    private ReporteDonacionesService reporteDonacionesService;
+
+    // El reporte comparte el límite de descargas simultáneas con la exportación de puntos
+    @Autowired
+    private ExportacionPuntosService exportacionPuntosService;
+
+    @Autowired
+    private DonacionRepository donacionRepository;
+
+    @Autowired
+    private ContadoresDonacionesService contadoresDonacionesService;
+
+    @Autowired
+    private TransicionDonacionesService transicionDonacionesService;
+
+    @Autowired
+    private ArchivoDonacionesService archivoDonacionesService;
+
+    // Máximo de donaciones por pedido de POST /donaciones/estado/lote
+    @Value("${app.donaciones.transicion-lote-maximo:1000}")
+    private int loteTransicionMaximo;
+
+    // Mismos tamaños de página que los listados de puntos
+    @Value("${app.paginacion.tamano-defecto:50}")
+    private int tamanoPaginaDefecto;
+
+    @Value("${app.paginacion.tamano-maximo:200}")
+    private int tamanoPaginaMaximo;
+
+    /**
+     * Historial de donaciones, opcionalmente de un estado (la cola de pendientes del admin, las entregadas, etc.)
+     * Siempre paginado por cursor sobre (fechaDonacion, id), de la más nueva a la más vieja salvo desc=false;
+     * cada página sigue por el índice (estado, fecha_donacion, id) desde la anterior, sin OFFSET.
+     * Solo la tabla activa: las entregadas y canceladas viejas ya archivadas salen en el reporte CSV
+     */
+    @GetMapping
+    public ResponseEntity<?> getDonaciones(
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) Integer tamano,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") Boolean desc) {
+        EstadoDonacion filtro = null;
+        if (estado != null && !estado.isBlank()) {
+            filtro = EstadoDonacion.desde(estado);
+            if (filtro == null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "estado inválido: " + estado));
+            }
+        }
+        try {
+            PaginacionPuntos.Pedido pedido = PaginacionPuntos.leer(cursor, "fechaDonacion", desc,
+                tamano != null ? tamano : tamanoPaginaDefecto, tamanoPaginaMaximo, PaginacionPuntos.ORDENES_DONACIONES);
+            return ResponseEntity.ok(PaginacionPuntos.armar(filtro != null
+                    ? donacionRepository.findByEstado(filtro, pedido.posicion(), pedido.sort(), pedido.limite())
+                    : donacionRepository.findAllBy(pedido.posicion(), pedido.sort(), pedido.limite()),
+                pedido, donacion -> donacion));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            System.err.println("Error en getDonaciones: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Registra una donación recibida en un punto
+     * responde 201 con la donación guardada (ya con id) cuando su lote hizo commit,
+     * o 429 si hay demasiadas esperando a escribirse
+     */
+    @PostMapping
+    public CompletableFuture<ResponseEntity<?>> registrarDonacion(@Valid @RequestBody DonacionRequest pedido) {
+        CompletableFuture<Donacion> recibo = ingestaDonacionesService.encolar(pedido);
+        if (recibo == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", "Hay muchas donaciones esperando a guardarse, reintentar en unos segundos")));
+        }
+        return recibo.<ResponseEntity<?>>thenApply(donacion -> ResponseEntity.status(HttpStatus.CREATED).body(donacion))
+            .exceptionally(e -> {
+                Throwable causa = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                if (causa instanceof IllegalArgumentException) {
+                    return ResponseEntity.badRequest().body(Map.of("error", causa.getMessage()));
+                }
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Error al registrar la donación: " + causa.getMessage()));
+            });
+    }
+
+    /**
+     * Estadísticas del admin entre dos días (inclusive): ?desde=2025-01-01&hasta=2025-12-31&agrupar=mes
+     * agrupar puede ser dia, mes, punto, tipo o estado. Sale de los totales diarios, no de las donaciones
+     */
+    @GetMapping("/estadisticas")
+    public ResponseEntity<?> getEstadisticas(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "dia") String agrupar) {
+        EstadisticasDonacionesService.Agrupacion agrupacion = EstadisticasDonacionesService.agrupacion(agrupar);
+        if (agrupacion == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "agrupar tiene que ser dia, mes, punto, tipo o estado"));
+        }
+        if (hasta.isBefore(desde)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "hasta no puede ser anterior a desde"));
+        }
+        try {
+            return ResponseEntity.ok(estadisticasDonacionesService.consultar(desde, hasta, agrupacion));
+        } catch (Exception e) {
+            System.err.println("Error en getEstadisticas: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Cambia el estado de una donación: {estado, version}
+     * version es la que se leyó; si otro la cambió en el medio responde 409 y no se aplica.
+     * 400 si el flujo no permite pasar a ese estado, 404 si no existe
+     */
+    @PostMapping("/{id}/estado")
+    public ResponseEntity<?> cambiarEstado(@PathVariable Long id, @RequestBody CambioEstadoRequest pedido) {
+        EstadoDonacion destino = EstadoDonacion.desde(pedido.estado());
+        if (destino == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "estado inválido: " + pedido.estado()));
+        }
+        try {
+            ResultadoTransicion resultado = transicionDonacionesService.cambiar(id, destino, pedido.version());
+            if (resultado.aplicado()) {
+                return ResponseEntity.ok(resultado);
+            }
+            if (resultado.conflicto()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(resultado);
+            }
+            if (TransicionDonacionesService.NO_ENCONTRADA.equals(resultado.error())) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(resultado);
+            }
+            return ResponseEntity.badRequest().body(resultado);
+        } catch (Exception e) {
+            System.err.println("Error en cambiarEstado: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Pasa muchas donaciones al mismo estado: {estado, items: [{id, version}]}
+     * Un SELECT y un batch de UPDATE condicionales en una transacción; responde un resultado por ítem
+     * y marca con conflicto=true las que otro cambio modificó antes
+     */
+    @PostMapping("/estado/lote")
+    public ResponseEntity<?> cambiarEstadoLote(@RequestBody TransicionLoteRequest pedido) {
+        EstadoDonacion destino = EstadoDonacion.desde(pedido.estado());
+        if (destino == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "estado inválido: " + pedido.estado()));
+        }
+        if (pedido.items() == null || pedido.items().isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "el lote está vacío"));
+        }
+        if (pedido.items().size() > loteTransicionMaximo) {
+            return ResponseEntity.badRequest().body(Map.of("error", "máximo " + loteTransicionMaximo + " ítems por lote"));
+        }
+        try {
+            return ResponseEntity.ok(transicionDonacionesService.aplicarLote(destino, pedido.items()));
+        } catch (Exception e) {
+            System.err.println("Error en cambiarEstadoLote: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Cantidad de donaciones por estado, por punto y por tipo para los tableros
+     * Sale de contadores en memoria (no hace COUNT en la base), se puede consultar seguido
+     */
+    @GetMapping("/contadores")
+    public ResponseEntity<?> getContadores() {
+        try {
+            return ResponseEntity.ok(contadoresDonacionesService.obtener());
+        } catch (Exception e) {
+            System.err.println("Error en getContadores: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /** Vuelve a calcular los totales diarios desde la tabla de donaciones (uso del admin) */
+    @PostMapping("/estadisticas/reconstruir")
+    public ResponseEntity<?> reconstruirEstadisticas() {
+        try {
+            return ResponseEntity.ok(Map.of("filas", estadisticasDonacionesService.reconstruir()));
+        } catch (Exception e) {
+            System.err.println("Error en reconstruirEstadisticas: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Pasa ya al archivo las donaciones entregadas o canceladas viejas (lo mismo que corre cada noche)
+     * Responde cuántas movió; 409 si ya hay un archivado en curso
+     */
+    @PostMapping("/archivo/ejecutar")
+    public ResponseEntity<?> archivarDonaciones() {
+        try {
+            return ResponseEntity.ok(Map.of("archivadas", archivoDonacionesService.archivar()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            System.err.println("Error en archivarDonaciones: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Reporte CSV de las donaciones entre dos días (inclusive), opcionalmente de un punto o estado (incluye las archivadas)
+     * Se escribe mientras se lee de la base. Si se corta, se retoma con ?despuesDe=<id de la última fila>
+     */
+    @GetMapping("/reporte.csv")
+    public ResponseEntity<StreamingResponseBody> getReporteCsv(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) Long puntoId,
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) Long despuesDe,
+            NativeWebRequest pedido) {
+        if (hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("hasta no puede ser anterior a desde");
+        }
+        EstadoDonacion estadoFiltro = null;
+        if (estado != null && !estado.isBlank()) {
+            estadoFiltro = EstadoDonacion.desde(estado);
+            if (estadoFiltro == null) {
+                throw new IllegalArgumentException("estado inválido: " + estado);
+            }
+        }
+        ReporteDonacionesService.Filtro filtro = new ReporteDonacionesService.Filtro(desde, hasta, puntoId, estadoFiltro,
+            despuesDe != null ? reporteDonacionesService.posicion(despuesDe) : null);
+
+        // Cada descarga ocupa una conexión del pool mientras dura; si ya hay varias, que reintente
+        StreamingResponseBody cuerpo = exportacionPuntosService.reservar(pedido,
+            salida -> reporteDonacionesService.escribirCsv(salida, filtro));
+        if (cuerpo == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .build();
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("text/csv;charset=UTF-8"))
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"donaciones-" + desde + "-" + hasta + ".csv\"")
+            .body(cuerpo);
+    }
+
+    // Parámetros inválidos de los endpoints que no pueden devolver el error como cuerpo (el reporte es un stream)
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> manejarParametroInvalido(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
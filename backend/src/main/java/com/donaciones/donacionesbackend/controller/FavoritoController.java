@@ -3,9 +3,11 @@ package com.donaciones.donacionesbackend.controller;
 import com.donaciones.donacionesbackend.entity.Favorito;
 import com.donaciones.donacionesbackend.repository.FavoritoRepository;
 import com.donaciones.donacionesbackend.repository.PuntoDonacionRepository;
+import com.donaciones.donacionesbackend.service.ResumenOrganizacionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
@@ -26,6 +28,9 @@ public class FavoritoController {
     @Autowired
     private PuntoDonacionRepository puntoDonacionRepository;
     
+    @Autowired
+    private ResumenOrganizacionService resumenOrganizacionService;
+    
     //Lista todos los favoritos de un donante 
     @GetMapping("/usuario/{usuarioId}")
     public ResponseEntity<?> getFavoritosByUsuario(@PathVariable Long usuarioId) {
@@ -41,6 +46,7 @@ public class FavoritoController {
     
     //Marca un punto como favorito para un donante
     @PostMapping
+    @Transactional // el favorito y los contadores del punto y su organización van juntos
     public ResponseEntity<?> crearFavorito(@RequestBody Map<String, Object> request) {
         try {
             Long usuarioId = Long.valueOf(request.get("usuarioId").toString());
@@ -62,6 +68,7 @@ public class FavoritoController {
             // Crear nuevo favorito
             Favorito favorito = new Favorito(usuarioId, puntoDonacionId);
             favorito = favoritoRepository.save(favorito);
+            resumenOrganizacionService.favoritoAgregado(puntoDonacionId);
             
             return ResponseEntity.status(HttpStatus.CREATED).body(favorito);
         } catch (Exception e) {
@@ -73,15 +80,18 @@ public class FavoritoController {
     
     //Quita un favorito de la lista del donante
     @DeleteMapping("/{id}")
+    @Transactional
     public ResponseEntity<?> eliminarFavorito(@PathVariable Long id) {
         try {
-            if (!favoritoRepository.existsById(id)) {
+            Optional<Favorito> favoritoOpt = favoritoRepository.findById(id);
+            if (!favoritoOpt.isPresent()) {
                 Map<String, String> error = new HashMap<>();
                 error.put("error", "El favorito no existe");
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
             }
             
-            favoritoRepository.deleteById(id);
+            favoritoRepository.delete(favoritoOpt.get());
+            resumenOrganizacionService.favoritoQuitado(favoritoOpt.get().getPuntoDonacionId());
             Map<String, String> response = new HashMap<>();
             response.put("message", "Favorito eliminado correctamente");
             return ResponseEntity.ok(response);
@@ -0,0 +1,42 @@
+package com.donaciones.donacionesbackend.controller;
+
+import com.donaciones.donacionesbackend.repository.OrganizacionRepository;
+import com.donaciones.donacionesbackend.service.ResumenOrganizacionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+//Controlador de datos propios de cada organización
+@RestController
+@RequestMapping("/organizaciones")
+@CrossOrigin(origins = "*")
+public class OrganizacionController {
+
+    @Autowired
+    private OrganizacionRepository organizacionRepository;
+
+    @Autowired
+    private ResumenOrganizacionService resumenOrganizacionService;
+
+    /**
+     * Resumen del panel "Mis puntos": puntos pendientes, activos y rechazados,
+     * favoritos en total y por punto. Sale de contadores, no de contar los puntos
+     */
+    @GetMapping("/{id}/resumen")
+    public ResponseEntity<?> getResumen(@PathVariable Long id) {
+        try {
+            if (!organizacionRepository.existsById(id)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "La organización no existe"));
+            }
+            return ResponseEntity.ok(resumenOrganizacionService.obtener(id));
+        } catch (Exception e) {
+            System.err.println("Error en getResumen: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Error al obtener el resumen: " + e.getMessage()));
+        }
+    }
+}
@@ -7,18 +7,59 @@ import com.donaciones.donacionesbackend.entity.Rol;
 import com.donaciones.donacionesbackend.entity.Organizacion;
 import com.donaciones.donacionesbackend.repository.PuntoDonacionRepository;
 import com.donaciones.donacionesbackend.repository.OrganizacionRepository;
-import com.donaciones.donacionesbackend.repository.FavoritoRepository;
+import com.donaciones.donacionesbackend.event.PuntoDonacionCambiadoEvent;
+import com.donaciones.donacionesbackend.service.IndiceEspacialService;
+import com.donaciones.donacionesbackend.service.ViewportService;
+import com.donaciones.donacionesbackend.service.SnapshotPuntosService;
+import com.donaciones.donacionesbackend.service.CambiosPuntosService;
+import com.donaciones.donacionesbackend.service.StreamPuntosService;
+import com.donaciones.donacionesbackend.service.BusquedaPuntosService;
+import com.donaciones.donacionesbackend.service.ModeracionPuntosService;
+import com.donaciones.donacionesbackend.service.ImportacionPuntosService;
+import com.donaciones.donacionesbackend.service.ExportacionPuntosService;
+import com.donaciones.donacionesbackend.service.EliminacionPuntosService;
+import com.donaciones.donacionesbackend.service.ResumenOrganizacionService;
+import com.donaciones.donacionesbackend.dto.CambiosPuntosRespuesta;
+import com.donaciones.donacionesbackend.dto.ViewportRespuesta;
+import com.donaciones.donacionesbackend.util.TiposDonacion;
+import com.donaciones.donacionesbackend.util.HorarioPuntos;
+import com.donaciones.donacionesbackend.util.PaginacionPuntos;
+import com.donaciones.donacionesbackend.dto.PuntoConDistancia;
+import com.donaciones.donacionesbackend.dto.PuntoPendiente;
+import com.donaciones.donacionesbackend.dto.ItemModeracion;
+import com.donaciones.donacionesbackend.dto.ResultadoEliminacion;
+import com.donaciones.donacionesbackend.dto.PuntoCrearRequest;
+import com.donaciones.donacionesbackend.dto.PuntoPatch;
+import com.donaciones.donacionesbackend.dto.RechazoRequest;
+import com.donaciones.donacionesbackend.util.MapeoPuntos;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Window;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import java.io.InputStream;
+import java.time.LocalTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.EnumSet;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 //Controlador de puntos de donación
@@ -26,6 +67,9 @@ import java.util.stream.Collectors;
 @RequestMapping("/puntos-donacion")
 @CrossOrigin(origins = "*") // Permito CORS para que el frontend pueda hacer peticiones
 public class PuntoDonacionController {
+
+    // Header con la versión del registro de cambios que acompaña a la lista pública y a /pines
+    private static final String VERSION_CAMBIOS = "X-Version-Cambios";
     
     @Autowired
     private PuntoDonacionRepository puntoDonacionRepository;
@@ -34,14 +78,85 @@ public class PuntoDonacionController {
     private OrganizacionRepository organizacionRepository;
 
     @Autowired
-    private FavoritoRepository favoritoRepository;
+    private IndiceEspacialService indiceEspacialService;
+
+    @Autowired
+    private ViewportService viewportService;
+
+    @Autowired
+    private SnapshotPuntosService snapshotPuntosService;
+
+    @Autowired
+    private CambiosPuntosService cambiosPuntosService;
+
+    @Autowired
+    private StreamPuntosService streamPuntosService;
+
+    @Autowired
+    private BusquedaPuntosService busquedaPuntosService;
+
+    @Autowired
+    private ModeracionPuntosService moderacionPuntosService;
+
+    @Autowired
+    private ImportacionPuntosService importacionPuntosService;
+
+    @Autowired
+    private ExportacionPuntosService exportacionPuntosService;
+
+    @Autowired
+    private EliminacionPuntosService eliminacionPuntosService;
+
+    @Autowired
+    private ResumenOrganizacionService resumenOrganizacionService;
+
+    // Zona horaria para decidir si un punto está abierto ahora
+    @Value("${app.zona-horaria:America/Argentina/Buenos_Aires}")
+    private String zonaHoraria;
+
+    @Value("${app.mas-cercanos.radio-max-km:50}")
+    private double radioMaxMasCercanosKm;
+
+    // Paginación de los listados: tamaño si no se indica y tope
+    @Value("${app.paginacion.tamano-defecto:50}")
+    private int tamanoPaginaDefecto;
+
+    @Value("${app.paginacion.tamano-maximo:200}")
+    private int tamanoPaginaMaximo;
+
+    // Máximo de ítems por pedido de moderación en lote
+    @Value("${app.moderacion.lote-maximo:500}")
+    private int loteModeracionMaximo;
+
+    // Máximo de ids por pedido de DELETE /puntos-donacion?ids=
+    @Value("${app.eliminacion.lote-maximo:500}")
+    private int loteEliminacionMaximo;
+
+    // Aviso de altas, cambios y bajas a los índices en memoria
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
     
-    //Devuelve todos los puntos sin filtrar
+    /**
+     * Devuelve todos los puntos sin filtrar
+     * Con tamano o cursor responde paginado por cursor (ver PaginacionPuntos); sin ellos, la lista entera
+     */
     @GetMapping("/todos")
-    public ResponseEntity<List<PuntoDonacion>> getAllPuntos() {
+    public ResponseEntity<?> getAllPuntos(
+            @RequestParam(required = false) Integer tamano,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "id") String orden,
+            @RequestParam(defaultValue = "false") Boolean desc) {
         try {
+            if (tamano != null || cursor != null) {
+                PaginacionPuntos.Pedido pedido = pedidoPaginado(tamano, cursor, orden, desc);
+                return ResponseEntity.ok(PaginacionPuntos.armar(
+                    puntoDonacionRepository.findAllBy(pedido.posicion(), pedido.sort(), pedido.limite()),
+                    pedido, punto -> punto));
+            }
             List<PuntoDonacion> puntos = puntoDonacionRepository.findAll();
             return ResponseEntity.ok(puntos);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             System.err.println("Error en getAllPuntos: " + e.getMessage());
             e.printStackTrace();
@@ -49,22 +164,30 @@ public class PuntoDonacionController {
         }
     }
     
-    //Lista puntos según el parámetro
+    /**
+     * Lista puntos según el parámetro
+     * La lista pública sale de un snapshot en memoria con ETag: si el navegador ya la tiene, respondo 304
+     */
     @GetMapping
-    public ResponseEntity<List<PuntoDonacion>> getAllPuntosActivos(@RequestParam(required = false) String todos) {
+    public ResponseEntity<?> getAllPuntosActivos(@RequestParam(required = false) String todos,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestParam(required = false) Integer tamano,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "id") String orden,
+            @RequestParam(defaultValue = "false") Boolean desc) {
         try {
             // Verifico si se está solicitando todos los puntos
             // Acepto tanto "true" como "1" para mayor flexibilidad
             boolean solicitarTodos = todos != null && (todos.equalsIgnoreCase("true") || todos.equals("1"));
             
             if (solicitarTodos) {
-                // Para administradores devuelvo todos los puntos
-                List<PuntoDonacion> puntos = puntoDonacionRepository.findAll();
-                return ResponseEntity.ok(puntos);
+                // Para administradores devuelvo todos los puntos, paginados si lo piden
+                return getAllPuntos(tamano, cursor, orden, desc);
             } else {
-                // Para el mapa público solo puntos activos y aprobados
-                List<PuntoDonacion> puntos = puntoDonacionRepository.findByActivoTrueAndEstado(EstadoPunto.ACTIVO);
-                return ResponseEntity.ok(puntos);
+                // Para el mapa público solo puntos activos y aprobados, desde el snapshot
+                long version = cambiosPuntosService.getVersionActual();
+                return responderSnapshot(snapshotPuntosService.obtener(), version, ifNoneMatch, acceptEncoding);
             }
         } catch (Exception e) {
             System.err.println("Error en getAllPuntosActivos: " + e.getMessage());
@@ -73,69 +196,157 @@ public class PuntoDonacionController {
         }
     }
     
+    /**
+     * Marcadores del mapa público: id, nombre, coordenadas, tipos y horario de cada punto activo
+     * El detalle (dirección, contacto) se pide a /{id} al abrir el popup. También con ETag/304
+     */
+    @GetMapping("/pines")
+    public ResponseEntity<?> getPines(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            long version = cambiosPuntosService.getVersionActual();
+            return responderSnapshot(snapshotPuntosService.obtenerPines(), version, ifNoneMatch, acceptEncoding);
+        } catch (Exception e) {
+            System.err.println("Error en getPines: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(500).build();
+        }
+    }
+    
+    /**
+     * 304 si el navegador ya tiene esta versión; si no, el JSON ya serializado (y ya comprimido si acepta gzip)
+     * X-Version-Cambios es la versión del registro de cambios leída antes del snapshot: el mapa la usa
+     * como primer ?desde= de /cambios (el snapshot se invalida antes de que suba la versión, así que
+     * la lista nunca es más vieja que ese número)
+     */
+    private ResponseEntity<?> responderSnapshot(SnapshotPuntosService.Snapshot snapshot, long versionCambios,
+            String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = snapshot.gzip() != null && SnapshotPuntosService.aceptaGzip(acceptEncoding);
+        String etag = gzip ? snapshot.etagGzip() : snapshot.etag();
+        if (snapshot.coincideCon(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .header(VERSION_CAMBIOS, String.valueOf(versionCambios))
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .header(VERSION_CAMBIOS, String.valueOf(versionCambios))
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache()) // el navegador puede guardarla pero revalida siempre
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            // Con Content-Encoding puesto, Tomcat no lo vuelve a comprimir
+            return respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+        }
+        return respuesta.body(snapshot.json());
+    }
+    
+    /**
+     * Cambios del mapa público desde una versión (altas, modificaciones y puntos eliminados)
+     * Sin desde, o con una versión demasiado vieja, devuelve la lista completa con completo=true
+     */
+    @GetMapping("/cambios")
+    public ResponseEntity<CambiosPuntosRespuesta> getCambios(@RequestParam(defaultValue = "0") Long desde) {
+        try {
+            return ResponseEntity.ok(cambiosPuntosService.cambiosDesde(desde));
+        } catch (Exception e) {
+            System.err.println("Error en getCambios: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(500).build();
+        }
+    }
+    
+    /**
+     * Stream SSE con avisos de puntos publicados o retirados del mapa (aprobar, rechazar, editar, eliminar)
+     * Cada evento trae la versión del registro de cambios; con eso el cliente pide /cambios?desde=
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPuntos() {
+        return streamPuntosService.suscribir(cambiosPuntosService.getVersionActual());
+    }
+    
     /**
      * Trae los puntos que esperan aprobación del admin, con el nombre de la org que los creó.
      * Lo usa el administrador en la pantalla Aprobar puntos
+     * Con tamano o cursor responde paginado por cursor
      */
     @GetMapping("/pendientes")
-    public ResponseEntity<List<Map<String, Object>>> getPuntosPendientes() {
+    public ResponseEntity<?> getPuntosPendientes(
+            @RequestParam(required = false) Integer tamano,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "fechaCreacion") String orden,
+            @RequestParam(defaultValue = "false") Boolean desc) {
         try {
-            List<PuntoDonacion> puntos = puntoDonacionRepository.findByEstado(EstadoPunto.PENDIENTE);
-            List<Map<String, Object>> puntosConOrganizacion = new java.util.ArrayList<>();
-            
-            for (PuntoDonacion punto : puntos) {
-                Map<String, Object> puntoData = new HashMap<>();
-                puntoData.put("id", punto.getId());
-                puntoData.put("nombre", punto.getNombre());
-                puntoData.put("direccion", punto.getDireccion());
-                puntoData.put("latitud", punto.getLatitud());
-                puntoData.put("longitud", punto.getLongitud());
-                puntoData.put("tipoDonacion", punto.getTipoDonacion());
-                puntoData.put("horarioApertura", punto.getHorarioApertura());
-                puntoData.put("horarioCierre", punto.getHorarioCierre());
-                puntoData.put("telefono", punto.getTelefono());
-                puntoData.put("email", punto.getEmail());
-                puntoData.put("activo", punto.getActivo());
-                puntoData.put("estado", punto.getEstado());
-                puntoData.put("motivoRechazo", punto.getMotivoRechazo());
-                puntoData.put("usuarioCreadorId", punto.getUsuarioCreadorId());
-                puntoData.put("tipoCreador", punto.getTipoCreador());
-                
-                // Obtener el nombre de la organización si existe
-                if (punto.getUsuarioCreadorId() != null) {
-                    Optional<Organizacion> organizacion = organizacionRepository.findById(punto.getUsuarioCreadorId());
-                    if (organizacion.isPresent()) {
-                        puntoData.put("nombreOrganizacion", organizacion.get().getNombre());
-                    } else {
-                        puntoData.put("nombreOrganizacion", null);
-                    }
-                } else {
-                    puntoData.put("nombreOrganizacion", null);
-                }
-                
-                puntosConOrganizacion.add(puntoData);
+            if (tamano != null || cursor != null) {
+                PaginacionPuntos.Pedido pedido = pedidoPaginado(tamano, cursor, orden, desc);
+                Window<PuntoDonacion> pagina = puntoDonacionRepository.findByEstado(EstadoPunto.PENDIENTE,
+                    pedido.posicion(), pedido.sort(), pedido.limite());
+                Map<Long, String> nombres = nombresDeOrganizaciones(pagina.getContent());
+                return ResponseEntity.ok(PaginacionPuntos.armar(pagina, pedido,
+                    punto -> PuntoPendiente.de(punto, nombres.get(punto.getUsuarioCreadorId()))));
             }
-            
-            return ResponseEntity.ok(puntosConOrganizacion);
+            return ResponseEntity.ok(puntoDonacionRepository.findPendientesConOrganizacion(EstadoPunto.PENDIENTE));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(500).build();
         }
     }
     
-    //Lista los puntos creados por una organización en particular
+    // Nombres de las organizaciones creadoras de una página de puntos, con un solo findAllById
+    private Map<Long, String> nombresDeOrganizaciones(List<PuntoDonacion> puntos) {
+        Set<Long> ids = new HashSet<>();
+        for (PuntoDonacion punto : puntos) {
+            if (punto.getUsuarioCreadorId() != null) {
+                ids.add(punto.getUsuarioCreadorId());
+            }
+        }
+        Map<Long, String> nombres = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Organizacion organizacion : organizacionRepository.findAllById(ids)) {
+                nombres.put(organizacion.getId(), organizacion.getNombre());
+            }
+        }
+        return nombres;
+    }
+    
+    //Lista los puntos creados por una organización en particular (paginado si viene tamano o cursor)
     @GetMapping("/organizacion/{organizacionId}")
-    public ResponseEntity<List<PuntoDonacion>> getPuntosPorOrganizacion(@PathVariable Long organizacionId) {
+    public ResponseEntity<?> getPuntosPorOrganizacion(@PathVariable Long organizacionId,
+            @RequestParam(required = false) Integer tamano,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "fechaCreacion") String orden,
+            @RequestParam(defaultValue = "true") Boolean desc) {
         try {
+            if (tamano != null || cursor != null) {
+                PaginacionPuntos.Pedido pedido = pedidoPaginado(tamano, cursor, orden, desc);
+                return ResponseEntity.ok(PaginacionPuntos.armar(
+                    puntoDonacionRepository.findByUsuarioCreadorIdAndTipoCreador(organizacionId, Rol.ORGANIZACION,
+                        pedido.posicion(), pedido.sort(), pedido.limite()),
+                    pedido, punto -> punto));
+            }
             List<PuntoDonacion> puntos = puntoDonacionRepository.findByUsuarioCreadorIdAndTipoCreador(
                 organizacionId, Rol.ORGANIZACION);
             return ResponseEntity.ok(puntos);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(500).build();
         }
     }
     
+    // Pedido de página con los tamaños por defecto y máximo configurados
+    private PaginacionPuntos.Pedido pedidoPaginado(Integer tamano, String cursor, String orden, boolean desc) {
+        return PaginacionPuntos.leer(cursor, orden, desc,
+            tamano != null ? tamano : tamanoPaginaDefecto, tamanoPaginaMaximo);
+    }
+    
     //Devuelve el detalle de un punto por su ID
     @GetMapping("/{id}")
     public ResponseEntity<PuntoDonacion> getPuntoById(@PathVariable Long id) {
@@ -144,30 +355,114 @@ public class PuntoDonacionController {
                    .orElse(ResponseEntity.notFound().build());
     }
     
-    //Filtra puntos activos por tipo de donación 
+    //Filtra puntos activos que aceptan un tipo de donación (entre otros)
     @GetMapping("/tipo/{tipo}")
     public ResponseEntity<List<PuntoDonacion>> getPuntosByTipo(@PathVariable TipoDonacion tipo) {
-        List<PuntoDonacion> puntos = puntoDonacionRepository.findByTipoDonacionAndActivoTrue(tipo);
+        List<PuntoDonacion> puntos = puntoDonacionRepository.findByTiposMaskInAndActivoTrue(
+            TiposDonacion.mascarasQueCoinciden(TiposDonacion.bit(tipo), false));
+        return ResponseEntity.ok(puntos);
+    }
+    
+    /**
+     * Filtra puntos activos por varios tipos a la vez, por ejemplo ?tipos=ROPA,PAPEL
+     * coincidencia=ALGUNO (por defecto) trae los que aceptan cualquiera; TODOS, los que aceptan todos
+     */
+    @GetMapping("/tipo")
+    public ResponseEntity<List<PuntoDonacion>> getPuntosByTipos(
+            @RequestParam String tipos,
+            @RequestParam(defaultValue = "ALGUNO") String coincidencia) {
+        EnumSet<TipoDonacion> tiposPedidos = EnumSet.noneOf(TipoDonacion.class);
+        try {
+            for (String tipo : tipos.split(",")) {
+                if (!tipo.isBlank()) {
+                    tiposPedidos.add(TipoDonacion.valueOf(tipo.trim().toUpperCase(Locale.ROOT)));
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build(); // tipo inexistente
+        }
+        if (tiposPedidos.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean todos;
+        if (coincidencia.equalsIgnoreCase("TODOS")) {
+            todos = true;
+        } else if (coincidencia.equalsIgnoreCase("ALGUNO")) {
+            todos = false;
+        } else {
+            return ResponseEntity.badRequest().build(); // solo ALGUNO o TODOS
+        }
+        List<PuntoDonacion> puntos = puntoDonacionRepository.findByTiposMaskInAndActivoTrue(
+            TiposDonacion.mascarasQueCoinciden(TiposDonacion.mascara(tiposPedidos), todos));
         return ResponseEntity.ok(puntos);
     }
     
     /**
      * busca puntos dentro de un radio en kilómetros desde una lat/lng
      * lo usa el donante en el mapa para encontrar lugares cerca de su ubicación
+     * responde desde el índice espacial en memoria, ordenado por distancia
      */
     @GetMapping("/cercanos")
     public ResponseEntity<List<PuntoDonacion>> getPuntosCercanos(
             @RequestParam Double latitud,
             @RequestParam Double longitud,
             @RequestParam(defaultValue = "10") Double radioKm) {
-        List<PuntoDonacion> puntos = puntoDonacionRepository.findPuntosCercanos(latitud, longitud, radioKm);
+        List<PuntoDonacion> puntos = indiceEspacialService.buscarCercanos(latitud, longitud, radioKm);
+        return ResponseEntity.ok(puntos);
+    }
+    
+    /**
+     * los k puntos más cercanos al donante, opcionalmente de un tipo y abiertos en este momento
+     * ej: /mas-cercanos?lat=-31.4&lng=-64.18&k=5&tipo=ROPA&abiertoAhora=true
+     */
+    @GetMapping("/mas-cercanos")
+    public ResponseEntity<List<PuntoConDistancia>> getPuntosMasCercanos(
+            @RequestParam Double lat,
+            @RequestParam Double lng,
+            @RequestParam(defaultValue = "5") Integer k,
+            @RequestParam(required = false) TipoDonacion tipo,
+            @RequestParam(defaultValue = "false") Boolean abiertoAhora) {
+        if (k < 1 || k > 50) {
+            return ResponseEntity.badRequest().build();
+        }
+        int bitTipo = tipo != null ? TiposDonacion.bit(tipo) : 0;
+        LocalTime ahora = LocalTime.now(ZoneId.of(zonaHoraria));
+        List<PuntoConDistancia> puntos = indiceEspacialService.buscarMasCercanos(lat, lng, k, punto ->
+            (tipo == null || (punto.getTiposMask() != null && (punto.getTiposMask() & bitTipo) != 0))
+                && (!abiertoAhora || HorarioPuntos.estaAbierto(punto, ahora)),
+            radioMaxMasCercanosKm);
         return ResponseEntity.ok(puntos);
     }
     
-    //busca puntos activos por nombre
+    /**
+     * devuelve lo que entra en la zona visible del mapa
+     * con zoom alto manda los puntos; con zoom bajo manda clusters con centroide, cantidad y tipos
+     */
+    @GetMapping("/viewport")
+    public ResponseEntity<ViewportRespuesta> getPuntosEnViewport(
+            @RequestParam Double minLat,
+            @RequestParam Double minLng,
+            @RequestParam Double maxLat,
+            @RequestParam Double maxLng,
+            @RequestParam Integer zoom) {
+        if (minLat > maxLat) {
+            return ResponseEntity.badRequest().build();
+        }
+        ViewportRespuesta respuesta = viewportService.consultar(minLat, minLng, maxLat, maxLng, zoom);
+        return ResponseEntity.ok(respuesta);
+    }
+    
+    /**
+     * busca puntos activos por nombre o dirección, sin importar tildes ni mayúsculas
+     * tolera errores de tipeo y devuelve primero los más parecidos
+     */
     @GetMapping("/buscar")
-    public ResponseEntity<List<PuntoDonacion>> buscarPuntos(@RequestParam String nombre) {
-        List<PuntoDonacion> puntos = puntoDonacionRepository.findByNombreContainingIgnoreCaseAndActivoTrue(nombre);
+    public ResponseEntity<List<PuntoDonacion>> buscarPuntos(@RequestParam String nombre,
+            @RequestParam(defaultValue = "20") Integer limite) {
+        if (limite < 1 || limite > 100) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<PuntoDonacion> puntos = busquedaPuntosService.buscar(nombre, limite);
         return ResponseEntity.ok(puntos);
     }
     
@@ -186,50 +481,18 @@ public class PuntoDonacionController {
 
     //Crea un punto nuevo
     @PostMapping
-    public ResponseEntity<PuntoDonacion> crearPunto(@RequestBody Map<String, Object> puntoData, HttpServletResponse response) {
+    @Transactional // el punto y los contadores del resumen de la organización van juntos
+    public ResponseEntity<PuntoDonacion> crearPunto(@Valid @RequestBody PuntoCrearRequest pedido, HttpServletResponse response) {
         // Configuro headers CORS manualmente porque a veces el @CrossOrigin no funciona bien
         response.setHeader("Access-Control-Allow-Origin", "*");
         response.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
         response.setHeader("Access-Control-Allow-Headers", "*");
         
         try {
-            PuntoDonacion punto = new PuntoDonacion();
-            // Mapeo todos los campos del JSON al objeto
-            punto.setNombre((String) puntoData.get("nombre"));
-            punto.setDireccion((String) puntoData.get("direccion"));
-            punto.setLatitud(((Number) puntoData.get("latitud")).doubleValue());
-            punto.setLongitud(((Number) puntoData.get("longitud")).doubleValue());
-            punto.setTipoDonacion((String) puntoData.get("tipoDonacion"));
-            punto.setTelefono((String) puntoData.get("telefono"));
-            punto.setEmail((String) puntoData.get("email"));
-            // Los horarios vienen como string "HH:mm" y los convierto a LocalTime
-            punto.setHorarioApertura(puntoData.get("horarioApertura") != null ? 
-                java.time.LocalTime.parse((String) puntoData.get("horarioApertura")) : null);
-            punto.setHorarioCierre(puntoData.get("horarioCierre") != null ? 
-                java.time.LocalTime.parse((String) puntoData.get("horarioCierre")) : null);
-            punto.setActivo(true); // Por defecto todos los puntos nuevos están activos
-            
-            // Verifico si viene información del creador para saber si es organización o admin
-            if (puntoData.containsKey("usuarioCreadorId") && puntoData.containsKey("tipoCreador")) {
-                Long usuarioCreadorId = ((Number) puntoData.get("usuarioCreadorId")).longValue();
-                String tipoCreadorStr = (String) puntoData.get("tipoCreador");
-                
-                punto.setUsuarioCreadorId(usuarioCreadorId);
-                punto.setTipoCreador(Rol.valueOf(tipoCreadorStr));
-                
-                // Si es una organización, el punto necesita aprobación del admin
-                if (Rol.valueOf(tipoCreadorStr) == Rol.ORGANIZACION) {
-                    punto.setEstado(EstadoPunto.PENDIENTE);
-                } else {
-                    // Si es admin, queda activo directamente
-                    punto.setEstado(EstadoPunto.ACTIVO);
-                }
-            } else {
-                // Si no viene información del creador, asumo que es un admin
-                punto.setEstado(EstadoPunto.ACTIVO);
-            }
-            
+            PuntoDonacion punto = MapeoPuntos.nuevoPunto(pedido);
             PuntoDonacion nuevoPunto = puntoDonacionRepository.save(punto);
+            resumenOrganizacionService.puntoCreado(nuevoPunto);
+            eventPublisher.publishEvent(PuntoDonacionCambiadoEvent.guardado(nuevoPunto));
             return ResponseEntity.ok(nuevoPunto);
         } catch (Exception e) {
             e.printStackTrace();
@@ -237,91 +500,36 @@ public class PuntoDonacionController {
         }
     }
     
-    //Actualiza los datos de un punto
+    /**
+     * Actualiza los datos de un punto con semántica de JSON Merge Patch:
+     * los campos que no vienen no se tocan y los que vienen en null se borran
+     */
     @PutMapping("/{id}")
     @Transactional // Uso @Transactional para asegurar que todo se guarde o nada
-    public ResponseEntity<PuntoDonacion> actualizarPunto(@PathVariable Long id, @RequestBody Map<String, Object> puntoData) {
+    public ResponseEntity<?> actualizarPunto(@PathVariable Long id, @Valid @RequestBody PuntoPatch cambios) {
         try {
             Optional<PuntoDonacion> puntoExistente = puntoDonacionRepository.findById(id);
             if (puntoExistente.isPresent()) {
                 PuntoDonacion punto = puntoExistente.get();
                 
                 // Verifico permisos
-                if (punto.getTipoCreador() != null && punto.getTipoCreador() == Rol.ORGANIZACION && puntoData.containsKey("usuarioCreadorId")) {
-                    Long usuarioId = ((Number) puntoData.get("usuarioCreadorId")).longValue();
-                    if (punto.getUsuarioCreadorId() != null && !punto.getUsuarioCreadorId().equals(usuarioId)) {
-                        return ResponseEntity.status(403).build(); // Forbidden - no tiene permisos
-                    }
+                if (punto.getTipoCreador() == Rol.ORGANIZACION && cambios.getUsuarioCreadorId() != null
+                    && punto.getUsuarioCreadorId() != null && !punto.getUsuarioCreadorId().equals(cambios.getUsuarioCreadorId())) {
+                    return ResponseEntity.status(403).build(); // Forbidden - no tiene permisos
                 }
                 
-                // Actualizo solo los campos que vienen en el request
-                if (puntoData.containsKey("nombre") && puntoData.get("nombre") != null) {
-                    punto.setNombre((String) puntoData.get("nombre"));
-                }
-                if (puntoData.containsKey("direccion") && puntoData.get("direccion") != null) {
-                    punto.setDireccion((String) puntoData.get("direccion"));
-                }
-                if (puntoData.containsKey("latitud") && puntoData.get("latitud") != null) {
-                    punto.setLatitud(((Number) puntoData.get("latitud")).doubleValue());
-                }
-                if (puntoData.containsKey("longitud") && puntoData.get("longitud") != null) {
-                    punto.setLongitud(((Number) puntoData.get("longitud")).doubleValue());
-                }
-                if (puntoData.containsKey("tipoDonacion") && puntoData.get("tipoDonacion") != null) {
-                    punto.setTipoDonacion((String) puntoData.get("tipoDonacion"));
-                }
-                if (puntoData.containsKey("telefono")) {
-                    punto.setTelefono(puntoData.get("telefono") != null ? (String) puntoData.get("telefono") : null);
-                }
-                if (puntoData.containsKey("email")) {
-                    punto.setEmail(puntoData.get("email") != null ? (String) puntoData.get("email") : null);
-                }
-                if (puntoData.containsKey("horarioApertura")) {
-                    if (puntoData.get("horarioApertura") != null && !((String) puntoData.get("horarioApertura")).isEmpty()) {
-                        punto.setHorarioApertura(java.time.LocalTime.parse((String) puntoData.get("horarioApertura")));
-                    } else {
-                        punto.setHorarioApertura(null);
-                    }
-                }
-                if (puntoData.containsKey("horarioCierre")) {
-                    if (puntoData.get("horarioCierre") != null && !((String) puntoData.get("horarioCierre")).isEmpty()) {
-                        punto.setHorarioCierre(java.time.LocalTime.parse((String) puntoData.get("horarioCierre")));
-                    } else {
-                        punto.setHorarioCierre(null);
-                    }
-                }
-                
-                // Manejo especial para el campo "activo" porque puede venir en diferentes formatos
-                if (puntoData.containsKey("activo")) {
-                    Boolean activo = null;
-                    Object activoObj = puntoData.get("activo");
-                    // Convierto según el tipo que venga
-                    if (activoObj instanceof Boolean) {
-                        activo = (Boolean) activoObj;
-                    } else if (activoObj instanceof String) {
-                        activo = Boolean.parseBoolean((String) activoObj);
-                    } else if (activoObj instanceof Number) {
-                        activo = ((Number) activoObj).intValue() != 0;
-                    }
-                    if (activo != null) {
-                        punto.setActivo(activo);
-                    }
-                }
-                
-                // Si una organización edita su punto que fue rechazado,
-                // vuelve a estado PENDIENTE para que el admin lo revise de nuevo
-                if (punto.getTipoCreador() != null && punto.getTipoCreador() == Rol.ORGANIZACION 
-                    && punto.getEstado() == EstadoPunto.RECHAZADO 
-                    && puntoData.size() > 1) { // Verifico que haya más campos además de activo
-                    punto.setEstado(EstadoPunto.PENDIENTE);
-                    punto.setMotivoRechazo(null); // Limpio el motivo de rechazo anterior
-                }
+                EstadoPunto estadoAnterior = punto.getEstado();
+                MapeoPuntos.aplicar(cambios, punto);
                 
                 PuntoDonacion puntoGuardado = puntoDonacionRepository.save(punto);
                 puntoDonacionRepository.flush();
+                resumenOrganizacionService.estadoCambiado(puntoGuardado, estadoAnterior);
+                eventPublisher.publishEvent(PuntoDonacionCambiadoEvent.guardado(puntoGuardado));
                 return ResponseEntity.ok(puntoGuardado);
             }
             return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(500).build();
@@ -330,116 +538,19 @@ public class PuntoDonacionController {
     
     //Elimina un punto. Admin (sin usuarioId) puede borrar cualquiera; organización solo los suyos
     @DeleteMapping("/{id}")
-    @Transactional
     public ResponseEntity<Void> desactivarPunto(@PathVariable Long id, @RequestParam(required = false) Long usuarioId) {
         try {
-            System.out.println("=== Eliminando punto ===");
-            System.out.println("Punto ID: " + id);
-            System.out.println("Usuario ID recibido: " + usuarioId);
-            
-            Optional<PuntoDonacion> punto = puntoDonacionRepository.findById(id);
-            if (!punto.isPresent()) {
+            System.out.println("=== Eliminando punto " + id + " (usuarioId: " + usuarioId + ") ===");
+            ResultadoEliminacion resultado = eliminacionPuntosService.eliminar(List.of(id), usuarioId);
+            if (!resultado.noEncontrados().isEmpty()) {
                 System.err.println("Error: Punto " + id + " no encontrado");
                 return ResponseEntity.notFound().build();
             }
-            
-            PuntoDonacion puntoActual = punto.get();
-            System.out.println("Punto encontrado: " + puntoActual.getNombre());
-            System.out.println("Tipo creador: " + puntoActual.getTipoCreador());
-            System.out.println("Usuario creador ID: " + puntoActual.getUsuarioCreadorId());
-
-            // Panel admin (sin usuarioId): eliminar físicamente cualquier punto
-            if (usuarioId == null) {
-                System.out.println("Eliminación desde admin: hard delete del punto " + id);
-                favoritoRepository.deleteByPuntoDonacionId(id); // limpio favoritos primero (FK)
-                puntoDonacionRepository.delete(puntoActual);
-                puntoDonacionRepository.flush();
-                return ResponseEntity.ok().build();
-            }
-            
-            // Determino si el punto fue creado por una organización
-            boolean esDeOrganizacion = puntoActual.getTipoCreador() != null && 
-                                      puntoActual.getTipoCreador() == Rol.ORGANIZACION;
-            
-            System.out.println("Es de organización (por tipoCreador): " + esDeOrganizacion);
-            
-            // Si no tiene tipoCreador pero tiene usuarioCreadorId, también lo trato como organización
-            if (!esDeOrganizacion && puntoActual.getUsuarioCreadorId() != null) {
-                esDeOrganizacion = true;
-                System.out.println("Es de organización (por usuarioCreadorId): " + esDeOrganizacion);
-            }
-            
-            // Si el usuario está intentando eliminar y el punto aparece en su lista,
-            // entonces es de organización
-            if (!esDeOrganizacion) {
-                List<PuntoDonacion> puntosOrganizacion = puntoDonacionRepository.findByUsuarioCreadorIdAndTipoCreador(usuarioId, Rol.ORGANIZACION);
-                boolean estaEnLista = puntosOrganizacion.stream().anyMatch(p -> p.getId().equals(id));
-                if (estaEnLista) {
-                    esDeOrganizacion = true;
-                    System.out.println("Es de organización (porque está en la lista de la organización): " + esDeOrganizacion);
-                }
-            }
-            
-            if (esDeOrganizacion) {
-                // Para puntos de organizaciones: eliminación física
-                // Verifico los permisos para eliminar
-                boolean tienePermisos = false;
-                
-                // Primero verifico si el punto tiene usuarioCreadorId y coincide
-                if (puntoActual.getUsuarioCreadorId() != null) {
-                    Long usuarioCreadorId = puntoActual.getUsuarioCreadorId();
-                    if (usuarioCreadorId.equals(usuarioId)) {
-                        tienePermisos = true;
-                        System.out.println("✓ Permisos: usuarioCreadorId (" + usuarioCreadorId + ") coincide con usuarioId (" + usuarioId + ")");
-                    }
-                }
-                
-                // Si aún no tiene permisos, verifico si el punto está en la lista de puntos de la organización
-                if (!tienePermisos) {
-                    System.out.println("Verificando si el punto está en la lista de puntos de la organización " + usuarioId);
-                    List<PuntoDonacion> puntosOrganizacion = puntoDonacionRepository.findByUsuarioCreadorIdAndTipoCreador(usuarioId, Rol.ORGANIZACION);
-                    boolean estaEnLista = puntosOrganizacion.stream().anyMatch(p -> p.getId().equals(id));
-                    
-                    if (estaEnLista) {
-                        tienePermisos = true;
-                        System.out.println("✓ Permisos: el punto está en la lista de puntos de la organización");
-                    } else {
-                        // Si el punto no tiene usuarioCreadorId pero está en estado válido, permitir eliminación
-                        // Esto maneja casos donde el punto fue creado antes de implementar usuarioCreadorId
-                        if (puntoActual.getUsuarioCreadorId() == null && 
-                            (puntoActual.getEstado() == EstadoPunto.PENDIENTE || puntoActual.getEstado() == EstadoPunto.ACTIVO)) {
-                            tienePermisos = true;
-                            System.out.println("✓ Permisos: punto sin usuarioCreadorId pero en estado válido");
-                        }
-                    }
-                }
-                
-                if (!tienePermisos) {
-                    System.err.println("✗ Acceso denegado: el usuario " + usuarioId + " no tiene permisos para eliminar el punto " + id);
-                    System.err.println("  - usuarioCreadorId del punto: " + puntoActual.getUsuarioCreadorId());
-                    System.err.println("  - estado del punto: " + puntoActual.getEstado());
-                    return ResponseEntity.status(403).body(null);
-                }
-                
-                // Elimino físicamente de la base de datos
-                favoritoRepository.deleteByPuntoDonacionId(id);
-                puntoDonacionRepository.delete(puntoActual);
-                puntoDonacionRepository.flush();
-                
-                // Verifico que se eliminó correctamente
-                Optional<PuntoDonacion> puntoVerificado = puntoDonacionRepository.findById(id);
-                if (puntoVerificado.isPresent()) {
-                    return ResponseEntity.status(500).build(); // Error no se eliminó
-                } else {
-                    return ResponseEntity.ok().build(); // Eliminado 
-                }
-            } else {
-                // Punto que no es de org (creado por admin): también hard delete
-                favoritoRepository.deleteByPuntoDonacionId(id);
-                puntoDonacionRepository.delete(puntoActual);
-                puntoDonacionRepository.flush();
-                return ResponseEntity.ok().build();
+            if (!resultado.sinPermiso().isEmpty()) {
+                System.err.println("✗ Acceso denegado: el usuario " + usuarioId + " no tiene permisos para eliminar el punto " + id);
+                return ResponseEntity.status(403).body(null);
             }
+            return ResponseEntity.ok().build();
         } catch (Exception e) {
             System.err.println("Error en desactivarPunto: " + e.getMessage());
             e.printStackTrace();
@@ -447,19 +558,41 @@ public class PuntoDonacionController {
         }
     }
     
+    /**
+     * Elimina varios puntos de una vez: DELETE /puntos-donacion?ids=1,2,3
+     * Mismas reglas de permisos que el borrado de a uno; responde qué se borró y qué no
+     */
+    @DeleteMapping
+    public ResponseEntity<?> eliminarPuntos(@RequestParam List<Long> ids, @RequestParam(required = false) Long usuarioId) {
+        if (ids.isEmpty() || ids.size() > loteEliminacionMaximo) {
+            return ResponseEntity.badRequest().body(Map.of("error", "mandar entre 1 y " + loteEliminacionMaximo + " ids"));
+        }
+        try {
+            return ResponseEntity.ok(eliminacionPuntosService.eliminar(ids, usuarioId));
+        } catch (Exception e) {
+            System.err.println("Error en eliminarPuntos: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(500).build();
+        }
+    }
+    
     /**
      * Aprueba un punto que estaba pendiente y lo deja visible en el mapa
      * solo lo usa el administrador desde la pantalla de aprobación de puntos
      */
     @PostMapping("/{id}/aprobar")
+    @Transactional
     public ResponseEntity<PuntoDonacion> aprobarPunto(@PathVariable Long id) {
         Optional<PuntoDonacion> punto = puntoDonacionRepository.findById(id);
         if (punto.isPresent()) {
             PuntoDonacion puntoActualizado = punto.get();
+            EstadoPunto estadoAnterior = puntoActualizado.getEstado();
             puntoActualizado.setEstado(EstadoPunto.ACTIVO);
             puntoActualizado.setActivo(true);
             puntoActualizado.setMotivoRechazo(null); // Limpiar motivo de rechazo si existe
             PuntoDonacion puntoGuardado = puntoDonacionRepository.save(puntoActualizado);
+            resumenOrganizacionService.estadoCambiado(puntoGuardado, estadoAnterior);
+            eventPublisher.publishEvent(PuntoDonacionCambiadoEvent.guardado(puntoGuardado));
             return ResponseEntity.ok(puntoGuardado);
         }
         return ResponseEntity.notFound().build();
@@ -467,15 +600,108 @@ public class PuntoDonacionController {
     
     //Rechaza un punto pendiente y guarda el motivo para que la org lo vea
     @PostMapping("/{id}/rechazar")
-    public ResponseEntity<PuntoDonacion> rechazarPunto(@PathVariable Long id, @RequestBody Map<String, String> data) {
+    @Transactional
+    public ResponseEntity<PuntoDonacion> rechazarPunto(@PathVariable Long id, @Valid @RequestBody RechazoRequest rechazo) {
         Optional<PuntoDonacion> punto = puntoDonacionRepository.findById(id);
         if (punto.isPresent()) {
             PuntoDonacion puntoActualizado = punto.get();
+            EstadoPunto estadoAnterior = puntoActualizado.getEstado();
             puntoActualizado.setEstado(EstadoPunto.RECHAZADO);
-            puntoActualizado.setMotivoRechazo(data.get("motivoRechazo"));
+            puntoActualizado.setMotivoRechazo(rechazo.motivoRechazo());
             PuntoDonacion puntoGuardado = puntoDonacionRepository.save(puntoActualizado);
+            resumenOrganizacionService.estadoCambiado(puntoGuardado, estadoAnterior);
+            eventPublisher.publishEvent(PuntoDonacionCambiadoEvent.guardado(puntoGuardado));
             return ResponseEntity.ok(puntoGuardado);
         }
         return ResponseEntity.notFound().build();
     }
+    
+    /**
+     * Aprueba o rechaza varios puntos en un solo pedido: [{id, accion, motivoRechazo}]
+     * accion es APROBAR o RECHAZAR. Todo va en una transacción y responde un resultado por ítem
+     */
+    @PostMapping("/moderacion/lote")
+    public ResponseEntity<?> moderarLote(@RequestBody List<ItemModeracion> items) {
+        if (items == null || items.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "el lote está vacío"));
+        }
+        if (items.size() > loteModeracionMaximo) {
+            return ResponseEntity.badRequest().body(Map.of("error", "máximo " + loteModeracionMaximo + " ítems por lote"));
+        }
+        try {
+            return ResponseEntity.ok(moderacionPuntosService.aplicarLote(items));
+        } catch (Exception e) {
+            System.err.println("Error en moderarLote: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(500).build();
+        }
+    }
+    
+    /**
+     * Importa muchos puntos de un archivo CSV o GeoJSON mandado como cuerpo del pedido
+     * El formato sale de ?formato=csv|geojson o del Content-Type. Si vienen usuarioCreadorId y
+     * tipoCreador se aplican a todos los puntos (los de una organización quedan PENDIENTES)
+     * Responde cuántos se importaron y qué filas se rechazaron y por qué
+     */
+    @PostMapping("/importar")
+    public ResponseEntity<?> importarPuntos(InputStream contenido,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestParam(required = false) String formato,
+            @RequestParam(required = false) Long usuarioCreadorId,
+            @RequestParam(required = false) String tipoCreador) {
+        try {
+            ImportacionPuntosService.Formato formatoArchivo = formatoImportacion(formato, contentType);
+            Rol rolCreador = tipoCreador != null ? Rol.valueOf(tipoCreador.toUpperCase(Locale.ROOT)) : null;
+            return ResponseEntity.ok(importacionPuntosService.importar(contenido, formatoArchivo, usuarioCreadorId, rolCreador));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            System.err.println("Error en importarPuntos: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(500).build();
+        }
+    }
+    
+    private static ImportacionPuntosService.Formato formatoImportacion(String formato, String contentType) {
+        String pista = (formato != null ? formato : contentType != null ? contentType : "").toLowerCase(Locale.ROOT);
+        if (pista.contains("csv")) {
+            return ImportacionPuntosService.Formato.CSV;
+        }
+        if (pista.contains("json")) {
+            return ImportacionPuntosService.Formato.GEOJSON;
+        }
+        throw new IllegalArgumentException("formato no soportado, usar csv o geojson");
+    }
+    
+    /**
+     * Descarga del catálogo público completo en GeoJSON (para socios y otros sistemas de mapas)
+     * Se escribe mientras se lee de la base, sin armar la lista en memoria
+     */
+    @GetMapping("/export.geojson")
+    public ResponseEntity<StreamingResponseBody> exportarGeoJson(NativeWebRequest pedido) {
+        return exportar(pedido, "puntos-donacion.geojson", MediaType.parseMediaType("application/geo+json"),
+            exportacionPuntosService::escribirGeoJson);
+    }
+    
+    //Lo mismo en CSV, con las columnas que acepta /importar
+    @GetMapping("/export.csv")
+    public ResponseEntity<StreamingResponseBody> exportarCsv(NativeWebRequest pedido) {
+        return exportar(pedido, "puntos-donacion.csv", MediaType.parseMediaType("text/csv;charset=UTF-8"),
+            exportacionPuntosService::escribirCsv);
+    }
+    
+    private ResponseEntity<StreamingResponseBody> exportar(NativeWebRequest pedido, String archivo, MediaType tipo,
+                                                           StreamingResponseBody escritura) {
+        // Cada descarga ocupa una conexión del pool mientras dura; si ya hay varias, que reintente
+        StreamingResponseBody cuerpo = exportacionPuntosService.reservar(pedido, escritura);
+        if (cuerpo == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .build();
+        }
+        return ResponseEntity.ok()
+            .contentType(tipo)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + archivo + "\"")
+            .body(cuerpo);
+    }
 }
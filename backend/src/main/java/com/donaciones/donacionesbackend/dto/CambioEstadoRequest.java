@@ -0,0 +1,4 @@
+package com.donaciones.donacionesbackend.dto;
+
+/** cuerpo de POST /donaciones/{id}/estado: el estado nuevo y la versión de la donación que se vio */
+public record CambioEstadoRequest(String estado, Long version) {}
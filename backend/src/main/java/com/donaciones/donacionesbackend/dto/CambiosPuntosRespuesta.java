@@ -0,0 +1,13 @@
+package com.donaciones.donacionesbackend.dto;
+
+import com.donaciones.donacionesbackend.entity.PuntoDonacion;
+
+import java.util.List;
+
+/**
+ * respuesta de /puntos-donacion/cambios
+ * si completo es false, puntos son altas/cambios y eliminados son los ids a sacar del mapa
+ * si completo es true, puntos es la lista pública entera y el cliente reemplaza lo que tenía
+ * version es lo que el cliente tiene que mandar en el próximo ?desde=
+ */
+public record CambiosPuntosRespuesta(long version, boolean completo, List<PuntoDonacion> puntos, List<Long> eliminados) {}
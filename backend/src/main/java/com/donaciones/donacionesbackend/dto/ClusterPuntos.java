@@ -0,0 +1,11 @@
+package com.donaciones.donacionesbackend.dto;
+
+import com.donaciones.donacionesbackend.entity.TipoDonacion;
+
+import java.util.Map;
+
+/**
+ * grupo de puntos cercanos que el mapa dibuja como un solo marcador con el número
+ * latitud/longitud son el centroide y tipos cuenta cuántos puntos aceptan cada tipo
+ */
+public record ClusterPuntos(double latitud, double longitud, int cantidad, Map<TipoDonacion, Integer> tipos) {}
@@ -0,0 +1,15 @@
+package com.donaciones.donacionesbackend.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * totales de donaciones para los tableros (GET /donaciones/contadores)
+ * salen de contadores en memoria; fechaReconciliacion es la última vez que se compararon con la base
+ */
+public record ContadoresDonaciones(
+        long total,
+        Map<String, Long> porEstado,
+        Map<Long, Long> porPunto,
+        Map<String, Long> porTipo,
+        LocalDateTime fechaReconciliacion) {}
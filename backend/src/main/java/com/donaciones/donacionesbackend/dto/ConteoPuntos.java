@@ -0,0 +1,9 @@
+package com.donaciones.donacionesbackend.dto;
+
+import com.donaciones.donacionesbackend.entity.EstadoPunto;
+
+/**
+ * puntos de una organización en un estado y cuántos favoritos suman
+ * sale de un GROUP BY; lo usa el resumen para armar o corregir sus contadores
+ */
+public record ConteoPuntos(Long organizacionId, EstadoPunto estado, Long cantidad, Long favoritos) {}
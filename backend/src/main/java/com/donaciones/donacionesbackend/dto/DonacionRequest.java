@@ -0,0 +1,18 @@
+package com.donaciones.donacionesbackend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+/**
+ * cuerpo de POST /donaciones: lo que registra el punto cuando recibe una donación
+ * donanteId puede faltar (donación anónima); el estado inicial lo pone el backend
+ */
+public record DonacionRequest(
+        @NotNull Long puntoDonacionId,
+        Long donanteId,
+        @NotBlank @Size(max = 255) String tipoDonacion,
+        @NotNull @Positive Integer cantidad,
+        String descripcion,
+        String observaciones) {}
@@ -0,0 +1,19 @@
+package com.donaciones.donacionesbackend.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * respuesta de GET /donaciones/estadisticas
+ * cada grupo es un día, mes, punto, tipo o estado según agrupar; cantidad es la suma de unidades
+ */
+public record EstadisticasDonaciones(
+        LocalDate desde,
+        LocalDate hasta,
+        String agrupar,
+        long cantidadTotal,
+        long donacionesTotal,
+        List<Grupo> grupos) {
+
+    public record Grupo(String clave, long cantidad, long donaciones) {}
+}
@@ -0,0 +1,6 @@
+package com.donaciones.donacionesbackend.dto;
+
+import com.donaciones.donacionesbackend.entity.EstadoPunto;
+
+/** un punto de la organización con la cantidad de donantes que lo guardaron en favoritos */
+public record FavoritosPunto(Long puntoId, String nombre, EstadoPunto estado, Integer favoritos) {}
@@ -0,0 +1,7 @@
+package com.donaciones.donacionesbackend.dto;
+
+/**
+ * una decisión dentro de un lote de moderación
+ * accion es APROBAR o RECHAZAR; motivoRechazo solo se usa al rechazar
+ */
+public record ItemModeracion(Long id, String accion, String motivoRechazo) {}
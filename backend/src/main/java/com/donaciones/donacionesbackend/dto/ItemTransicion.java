@@ -0,0 +1,7 @@
+package com.donaciones.donacionesbackend.dto;
+
+/**
+ * una donación dentro de un cambio de estado en lote
+ * version es la que vio el que pide el cambio; si no viene se usa la que tiene al leerla
+ */
+public record ItemTransicion(Long id, Long version) {}
@@ -0,0 +1,9 @@
+package com.donaciones.donacionesbackend.dto;
+
+import java.util.List;
+
+/**
+ * una página de un listado paginado por cursor
+ * siguiente es el token opaco para pedir la próxima página (null si no hay más)
+ */
+public record PaginaRespuesta<T>(List<T> items, String siguiente, boolean hayMas) {}
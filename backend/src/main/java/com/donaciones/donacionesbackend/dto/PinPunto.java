@@ -0,0 +1,17 @@
+package com.donaciones.donacionesbackend.dto;
+
+import java.time.LocalTime;
+
+/**
+ * lo mínimo para dibujar un marcador en el mapa: posición, nombre, tipos (para el ícono y el filtro) y horario
+ * dirección, contacto y demás se piden a /puntos-donacion/{id} cuando se abre el popup
+ */
+public record PinPunto(
+        Long id,
+        String nombre,
+        Double latitud,
+        Double longitud,
+        String tipoDonacion,
+        Integer tiposMask,
+        LocalTime horarioApertura,
+        LocalTime horarioCierre) {}
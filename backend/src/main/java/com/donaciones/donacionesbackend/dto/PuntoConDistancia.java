@@ -0,0 +1,6 @@
+package com.donaciones.donacionesbackend.dto;
+
+import com.donaciones.donacionesbackend.entity.PuntoDonacion;
+
+/** punto encontrado en una búsqueda por cercanía, con la distancia en km al donante */
+public record PuntoConDistancia(PuntoDonacion punto, double distanciaKm) {}
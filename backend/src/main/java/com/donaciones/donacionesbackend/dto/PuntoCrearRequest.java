@@ -0,0 +1,29 @@
+package com.donaciones.donacionesbackend.dto;
+
+import com.donaciones.donacionesbackend.entity.Rol;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalTime;
+
+/**
+ * cuerpo de POST /puntos-donacion, ya tipado y validado antes de llegar al controlador
+ * los horarios vienen como "HH:mm" (vacío = sin horario); si vienen usuarioCreadorId y tipoCreador,
+ * el punto queda a nombre de ese usuario
+ */
+public record PuntoCrearRequest(
+        @NotBlank @Size(max = 255) String nombre,
+        @NotBlank String direccion,
+        @NotNull @DecimalMin("-90") @DecimalMax("90") Double latitud,
+        @NotNull @DecimalMin("-180") @DecimalMax("180") Double longitud,
+        @NotBlank @Size(max = 255) String tipoDonacion,
+        LocalTime horarioApertura,
+        LocalTime horarioCierre,
+        @Size(max = 255) String telefono,
+        @Email @Size(max = 255) String email,
+        Long usuarioCreadorId,
+        Rol tipoCreador) {}
@@ -0,0 +1,99 @@
+package com.donaciones.donacionesbackend.dto;
+
+import com.donaciones.donacionesbackend.entity.Rol;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * cuerpo de PUT /puntos-donacion/{id} con semántica de JSON Merge Patch (RFC 7386):
+ * un campo que no viene no se toca, uno que viene en null se borra
+ * un record no distingue "no vino" de "vino null", por eso es una clase con setters que anotan
+ * qué campos trajo el JSON (Jackson llama al setter también cuando el valor es null)
+ */
+public class PuntoPatch {
+
+    private final Set<String> presentes = new HashSet<>();
+
+    @Size(max = 255)
+    private String nombre;
+
+    private String direccion;
+
+    @DecimalMin("-90") @DecimalMax("90")
+    private Double latitud;
+
+    @DecimalMin("-180") @DecimalMax("180")
+    private Double longitud;
+
+    @Size(max = 255)
+    private String tipoDonacion;
+
+    private LocalTime horarioApertura;
+
+    private LocalTime horarioCierre;
+
+    @Size(max = 255)
+    private String telefono;
+
+    @Email @Size(max = 255)
+    private String email;
+
+    private Boolean activo;
+
+    // No se cambia: solo sirve para validar que la organización edite sus propios puntos
+    private Long usuarioCreadorId;
+
+    private Rol tipoCreador;
+
+    /** true si el campo vino en el JSON (aunque sea null) */
+    public boolean trae(String campo) {
+        return presentes.contains(campo);
+    }
+
+    /** cantidad de campos que trajo el JSON */
+    public int cantidadCampos() {
+        return presentes.size();
+    }
+
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; presentes.add("nombre"); }
+
+    public String getDireccion() { return direccion; }
+    public void setDireccion(String direccion) { this.direccion = direccion; presentes.add("direccion"); }
+
+    public Double getLatitud() { return latitud; }
+    public void setLatitud(Double latitud) { this.latitud = latitud; presentes.add("latitud"); }
+
+    public Double getLongitud() { return longitud; }
+    public void setLongitud(Double longitud) { this.longitud = longitud; presentes.add("longitud"); }
+
+    public String getTipoDonacion() { return tipoDonacion; }
+    public void setTipoDonacion(String tipoDonacion) { this.tipoDonacion = tipoDonacion; presentes.add("tipoDonacion"); }
+
+    public LocalTime getHorarioApertura() { return horarioApertura; }
+    public void setHorarioApertura(LocalTime horarioApertura) { this.horarioApertura = horarioApertura; presentes.add("horarioApertura"); }
+
+    public LocalTime getHorarioCierre() { return horarioCierre; }
+    public void setHorarioCierre(LocalTime horarioCierre) { this.horarioCierre = horarioCierre; presentes.add("horarioCierre"); }
+
+    public String getTelefono() { return telefono; }
+    public void setTelefono(String telefono) { this.telefono = telefono; presentes.add("telefono"); }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; presentes.add("email"); }
+
+    public Boolean getActivo() { return activo; }
+    public void setActivo(Boolean activo) { this.activo = activo; presentes.add("activo"); }
+
+    public Long getUsuarioCreadorId() { return usuarioCreadorId; }
+    public void setUsuarioCreadorId(Long usuarioCreadorId) { this.usuarioCreadorId = usuarioCreadorId; presentes.add("usuarioCreadorId"); }
+
+    public Rol getTipoCreador() { return tipoCreador; }
+    public void setTipoCreador(Rol tipoCreador) { this.tipoCreador = tipoCreador; presentes.add("tipoCreador"); }
+}
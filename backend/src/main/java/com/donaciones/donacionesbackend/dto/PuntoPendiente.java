@@ -0,0 +1,39 @@
+package com.donaciones.donacionesbackend.dto;
+
+import com.donaciones.donacionesbackend.entity.EstadoPunto;
+import com.donaciones.donacionesbackend.entity.PuntoDonacion;
+import com.donaciones.donacionesbackend.entity.Rol;
+
+import java.time.LocalTime;
+
+/**
+ * punto pendiente de aprobación con el nombre de la organización que lo creó
+ * es lo que muestra el panel del admin; sale de un solo JOIN en vez de buscar la organización punto por punto
+ */
+public record PuntoPendiente(
+        Long id,
+        String nombre,
+        String direccion,
+        Double latitud,
+        Double longitud,
+        String tipoDonacion,
+        LocalTime horarioApertura,
+        LocalTime horarioCierre,
+        String telefono,
+        String email,
+        Boolean activo,
+        EstadoPunto estado,
+        String motivoRechazo,
+        Long usuarioCreadorId,
+        Rol tipoCreador,
+        String nombreOrganizacion) {
+
+    /** arma el registro a partir de la entidad y el nombre ya resuelto (o null) */
+    public static PuntoPendiente de(PuntoDonacion punto, String nombreOrganizacion) {
+        return new PuntoPendiente(punto.getId(), punto.getNombre(), punto.getDireccion(),
+            punto.getLatitud(), punto.getLongitud(), punto.getTipoDonacion(),
+            punto.getHorarioApertura(), punto.getHorarioCierre(), punto.getTelefono(), punto.getEmail(),
+            punto.getActivo(), punto.getEstado(), punto.getMotivoRechazo(),
+            punto.getUsuarioCreadorId(), punto.getTipoCreador(), nombreOrganizacion);
+    }
+}
@@ -0,0 +1,6 @@
+package com.donaciones.donacionesbackend.dto;
+
+import jakarta.validation.constraints.Size;
+
+/** cuerpo de POST /puntos-donacion/{id}/rechazar: el motivo que va a ver la organización */
+public record RechazoRequest(@Size(max = 2000) String motivoRechazo) {}
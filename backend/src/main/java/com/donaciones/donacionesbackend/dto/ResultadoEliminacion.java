@@ -0,0 +1,9 @@
+package com.donaciones.donacionesbackend.dto;
+
+import java.util.List;
+
+/**
+ * qué pasó con cada id de un pedido de eliminación
+ * sinPermiso son puntos que existen pero no son del usuario que pidió borrarlos
+ */
+public record ResultadoEliminacion(List<Long> eliminados, List<Long> noEncontrados, List<Long> sinPermiso) {}
@@ -0,0 +1,24 @@
+package com.donaciones.donacionesbackend.dto;
+
+import java.util.List;
+
+/**
+ * resumen de POST /puntos-donacion/importar
+ * errores trae las primeras filas rechazadas (hasta app.importacion.max-errores);
+ * si hubo más, erroresTruncados es true y conError igual las cuenta todas.
+ * completo es false si la importación se cortó a mitad de camino, por un error de la base o por una fila
+ * que no se puede leer (ej. comillas sin cerrar): lo importado antes queda guardado
+ */
+public record ResultadoImportacion(
+        long filasLeidas,
+        long importadas,
+        long conError,
+        int lotes,
+        long duracionMs,
+        boolean completo,
+        List<ErrorFila> errores,
+        boolean erroresTruncados) {
+
+    /** fila es la línea del CSV o la posición del feature en el GeoJSON (desde 1) */
+    public record ErrorFila(long fila, String error) {}
+}
@@ -0,0 +1,18 @@
+package com.donaciones.donacionesbackend.dto;
+
+import com.donaciones.donacionesbackend.entity.EstadoPunto;
+
+/**
+ * cómo terminó cada ítem del lote, en el mismo orden en que vino
+ * si aplicado es false, error dice por qué y estado queda null
+ */
+public record ResultadoModeracion(Long id, boolean aplicado, EstadoPunto estado, String error) {
+
+    public static ResultadoModeracion aplicado(Long id, EstadoPunto estado) {
+        return new ResultadoModeracion(id, true, estado, null);
+    }
+
+    public static ResultadoModeracion fallido(Long id, String error) {
+        return new ResultadoModeracion(id, false, null, error);
+    }
+}
@@ -0,0 +1,24 @@
+package com.donaciones.donacionesbackend.dto;
+
+import com.donaciones.donacionesbackend.entity.EstadoDonacion;
+
+/**
+ * cómo terminó cada donación de un cambio de estado, en el mismo orden en que vino
+ * conflicto es true si otro cambio la modificó antes (versión vieja o perdió la carrera):
+ * hay que volver a leerla y decidir de nuevo. Si aplicado es false, error dice por qué
+ */
+public record ResultadoTransicion(Long id, boolean aplicado, EstadoDonacion estado, Long version,
+                                  boolean conflicto, String error) {
+
+    public static ResultadoTransicion aplicado(Long id, EstadoDonacion estado, Long version) {
+        return new ResultadoTransicion(id, true, estado, version, false, null);
+    }
+
+    public static ResultadoTransicion fallido(Long id, String error) {
+        return new ResultadoTransicion(id, false, null, null, false, error);
+    }
+
+    public static ResultadoTransicion conflicto(Long id, String error) {
+        return new ResultadoTransicion(id, false, null, null, true, error);
+    }
+}
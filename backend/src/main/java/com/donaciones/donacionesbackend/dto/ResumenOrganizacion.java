@@ -0,0 +1,33 @@
+package com.donaciones.donacionesbackend.dto;
+
+import com.donaciones.donacionesbackend.entity.ContadoresOrganizacion;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * lo que muestra el panel "Mis puntos" de una organización
+ * los totales salen de los contadores; puntos trae los favoritos de cada punto
+ */
+public record ResumenOrganizacion(
+        Long organizacionId,
+        long total,
+        long pendientes,
+        long activos,
+        long rechazados,
+        long favoritos,
+        List<FavoritosPunto> puntos,
+        LocalDateTime fechaReconciliacion) {
+
+    public static ResumenOrganizacion de(ContadoresOrganizacion contadores, List<FavoritosPunto> puntos) {
+        return new ResumenOrganizacion(
+            contadores.getOrganizacionId(),
+            contadores.getPendientes() + contadores.getActivos() + contadores.getRechazados(),
+            contadores.getPendientes(),
+            contadores.getActivos(),
+            contadores.getRechazados(),
+            contadores.getFavoritos(),
+            puntos,
+            contadores.getFechaReconciliacion());
+    }
+}
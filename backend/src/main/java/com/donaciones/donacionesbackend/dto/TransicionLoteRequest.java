@@ -0,0 +1,6 @@
+package com.donaciones.donacionesbackend.dto;
+
+import java.util.List;
+
+/** cuerpo de POST /donaciones/estado/lote: pasar todas esas donaciones al mismo estado */
+public record TransicionLoteRequest(String estado, List<ItemTransicion> items) {}
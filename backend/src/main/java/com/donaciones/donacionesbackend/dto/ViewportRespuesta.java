@@ -0,0 +1,11 @@
+package com.donaciones.donacionesbackend.dto;
+
+import com.donaciones.donacionesbackend.entity.PuntoDonacion;
+
+import java.util.List;
+
+/**
+ * respuesta de /puntos-donacion/viewport
+ * con zoom alto vienen solo puntos; con zoom bajo vienen clusters y los puntos que quedaron solos
+ */
+public record ViewportRespuesta(int zoom, boolean agrupado, List<PuntoDonacion> puntos, List<ClusterPuntos> clusters) {}
@@ -0,0 +1,71 @@
+package com.donaciones.donacionesbackend.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * contadores del panel de una organización (puntos por estado y favoritos recibidos)
+ * se actualizan en la misma transacción que cada cambio de puntos o favoritos,
+ * así /organizaciones/{id}/resumen lee una fila en vez de recorrer las tablas
+ * la fila se crea la primera vez que se pide el resumen y se reconcilia periódicamente
+ */
+@Entity
+@Table(name = "contadores_organizacion")
+public class ContadoresOrganizacion {
+
+    // Mismo id que la organización
+    @Id
+    @Column(name = "organizacion_id")
+    private Long organizacionId;
+
+    @Column(nullable = false)
+    private long pendientes;
+
+    @Column(nullable = false)
+    private long activos;
+
+    @Column(nullable = false)
+    private long rechazados;
+
+    // Favoritos sumando todos los puntos de la organización
+    @Column(nullable = false)
+    private long favoritos;
+
+    /**
+     * Sube con cada UPDATE de contadores
+     * la reconciliación solo corrige la fila si nadie la tocó desde que la leyó
+     */
+    @Version
+    private Long version;
+
+    @Column(name = "fecha_reconciliacion")
+    private LocalDateTime fechaReconciliacion;
+
+    public ContadoresOrganizacion() {}
+
+    public ContadoresOrganizacion(Long organizacionId) {
+        this.organizacionId = organizacionId;
+        this.fechaReconciliacion = LocalDateTime.now();
+    }
+
+    // Getters y Setters
+    public Long getOrganizacionId() { return organizacionId; }
+    public void setOrganizacionId(Long organizacionId) { this.organizacionId = organizacionId; }
+
+    public long getPendientes() { return pendientes; }
+    public void setPendientes(long pendientes) { this.pendientes = pendientes; }
+
+    public long getActivos() { return activos; }
+    public void setActivos(long activos) { this.activos = activos; }
+
+    public long getRechazados() { return rechazados; }
+    public void setRechazados(long rechazados) { this.rechazados = rechazados; }
+
+    public long getFavoritos() { return favoritos; }
+    public void setFavoritos(long favoritos) { this.favoritos = favoritos; }
+
+    public Long getVersion() { return version; }
+
+    public LocalDateTime getFechaReconciliacion() { return fechaReconciliacion; }
+    public void setFechaReconciliacion(LocalDateTime fechaReconciliacion) { this.fechaReconciliacion = fechaReconciliacion; }
+}
@@ -1,6 +1,8 @@
 package com.donaciones.donacionesbackend.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
 import java.time.LocalDateTime;
 
 /**
@@ -8,7 +10,10 @@ import java.time.LocalDateTime;
  * une punto de donación, donante  y beneficiario cuando ya se entrega
  */
 @Entity
-@Table(name = "donaciones")
+@Table(name = "donaciones", indexes = {
+    @Index(name = "idx_donaciones_fecha", columnList = "fecha_donacion"), // reportes por rango, en orden (fecha, id)
+    @Index(name = "idx_donaciones_estado_fecha", columnList = "estado, fecha_donacion, id") // historial por estado
+})
 public class Donacion {
     
     @Id
@@ -33,15 +38,25 @@ public class Donacion {
     private String descripcion;
     
     /**
-     * estado actual en el ciclo de vida
-     * lo guardo como String para flexibilidad con estados del punto y del admin
+     * estado actual en el ciclo de vida (ver EstadoDonacion)
+     * en MySQL queda como columna ENUM: un byte por fila y por entrada del índice (estado, fecha, id)
      */
+    @Enumerated(EnumType.STRING)
     @Column(nullable = false)
-    private String estado; // PENDIENTE, VERIFICADA, RECHAZADA, RECIBIDA, CLASIFICADA, DISTRIBUIDA, ENTREGADA
+    private EstadoDonacion estado;
     
-    @Column(name = "fecha_donacion")
+    @Column(name = "fecha_donacion", nullable = false) // clave del cursor del historial y del reporte
     private LocalDateTime fechaDonacion;
     
+    /**
+     * sube con cada cambio de estado; el que quiere cambiarla manda la versión que vio
+     * y si alguien la modificó en el medio su cambio no se aplica (no se pisan el punto y el admin)
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+    
     /** Se completa cuando la donación ya tiene destinatario asignado */
     @Column(name = "beneficiario_id")
     private Long beneficiarioId;
@@ -57,7 +72,7 @@ public class Donacion {
     public Donacion() {}
     
     public Donacion(Long puntoDonacionId, String tipoDonacion, Integer cantidad, 
-                   String descripcion, String estado) {
+                   String descripcion, EstadoDonacion estado) {
         this.puntoDonacionId = puntoDonacionId;
         this.tipoDonacion = tipoDonacion;
         this.cantidad = cantidad;
@@ -85,12 +100,15 @@ public class Donacion {
     public String getDescripcion() { return descripcion; }
     public void setDescripcion(String descripcion) { this.descripcion = descripcion; }
     
-    public String getEstado() { return estado; }
-    public void setEstado(String estado) { this.estado = estado; }
+    public EstadoDonacion getEstado() { return estado; }
+    public void setEstado(EstadoDonacion estado) { this.estado = estado; }
     
     public LocalDateTime getFechaDonacion() { return fechaDonacion; }
     public void setFechaDonacion(LocalDateTime fechaDonacion) { this.fechaDonacion = fechaDonacion; }
     
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    
     public Long getBeneficiarioId() { return beneficiarioId; }
     public void setBeneficiarioId(Long beneficiarioId) { this.beneficiarioId = beneficiarioId; }
     
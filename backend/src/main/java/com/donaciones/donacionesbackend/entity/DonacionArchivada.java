@@ -0,0 +1,74 @@
+package com.donaciones.donacionesbackend.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * donación vieja ya cerrada (ENTREGADA o CANCELADA) que se movió fuera de la tabla donaciones
+ * mismas columnas y mismo id que tenía; la llena ArchivoDonacionesService y los reportes
+ * leen las dos tablas, así la tabla activa y sus índices quedan chicos
+ */
+@Entity
+@Table(name = "donaciones_archivo", indexes = {
+    @Index(name = "idx_donaciones_archivo_fecha", columnList = "fecha_donacion") // reportes por rango, en orden (fecha, id)
+})
+public class DonacionArchivada {
+
+    // El id original de la donación, no se genera de nuevo
+    @Id
+    private Long id;
+
+    @Column(name = "punto_donacion_id", nullable = false)
+    private Long puntoDonacionId;
+
+    @Column(name = "donante_id")
+    private Long donanteId;
+
+    @Column(nullable = false)
+    private String tipoDonacion;
+
+    @Column(nullable = false)
+    private Integer cantidad;
+
+    @Column(columnDefinition = "TEXT")
+    private String descripcion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EstadoDonacion estado;
+
+    @Column(name = "fecha_donacion", nullable = false)
+    private LocalDateTime fechaDonacion;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(name = "beneficiario_id")
+    private Long beneficiarioId;
+
+    @Column(name = "fecha_entrega")
+    private LocalDateTime fechaEntrega;
+
+    @Column(columnDefinition = "TEXT")
+    private String observaciones;
+
+    // Cuándo se pasó al archivo
+    @Column(name = "fecha_archivo", nullable = false)
+    private LocalDateTime fechaArchivo;
+
+    public DonacionArchivada() {}
+
+    public Long getId() { return id; }
+    public Long getPuntoDonacionId() { return puntoDonacionId; }
+    public Long getDonanteId() { return donanteId; }
+    public String getTipoDonacion() { return tipoDonacion; }
+    public Integer getCantidad() { return cantidad; }
+    public String getDescripcion() { return descripcion; }
+    public EstadoDonacion getEstado() { return estado; }
+    public LocalDateTime getFechaDonacion() { return fechaDonacion; }
+    public Long getVersion() { return version; }
+    public Long getBeneficiarioId() { return beneficiarioId; }
+    public LocalDateTime getFechaEntrega() { return fechaEntrega; }
+    public String getObservaciones() { return observaciones; }
+    public LocalDateTime getFechaArchivo() { return fechaArchivo; }
+}
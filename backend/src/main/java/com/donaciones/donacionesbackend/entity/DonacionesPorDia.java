@@ -0,0 +1,57 @@
+package com.donaciones.donacionesbackend.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * total diario de donaciones por punto, tipo y estado (cantidad sumada y cuántas son)
+ * las estadísticas del admin se calculan sobre estas filas en vez de recorrer la tabla donaciones
+ * la mantiene EstadisticasDonacionesService y se puede reconstruir desde cero
+ */
+@Entity
+@Table(name = "donaciones_por_dia", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_donaciones_por_dia", columnNames = {"dia", "punto_donacion_id", "tipo_donacion", "estado"})
+})
+public class DonacionesPorDia {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate dia;
+
+    @Column(name = "punto_donacion_id", nullable = false)
+    private Long puntoDonacionId;
+
+    @Column(name = "tipo_donacion", nullable = false)
+    private String tipoDonacion;
+
+    @Column(nullable = false)
+    private String estado;
+
+    // Suma de Donacion.cantidad
+    @Column(name = "cantidad_total", nullable = false)
+    private long cantidadTotal;
+
+    // Cuántas donaciones hay en el grupo
+    @Column(nullable = false)
+    private long donaciones;
+
+    public DonacionesPorDia() {}
+
+    // Getters (las filas solo se escriben por SQL)
+    public Long getId() { return id; }
+
+    public LocalDate getDia() { return dia; }
+
+    public Long getPuntoDonacionId() { return puntoDonacionId; }
+
+    public String getTipoDonacion() { return tipoDonacion; }
+
+    public String getEstado() { return estado; }
+
+    public long getCantidadTotal() { return cantidadTotal; }
+
+    public long getDonaciones() { return donaciones; }
+}
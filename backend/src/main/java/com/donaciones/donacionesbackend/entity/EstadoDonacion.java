@@ -1,10 +1,19 @@
 package com.donaciones.donacionesbackend.entity;
 
+import java.util.Locale;
+
 /**
- * estados del ciclo de una donación después de ser aceptada en el punto
- * lo uso en reportes y filtros del panel administrativo
+ * estados del ciclo de una donación, desde que se registra en el punto hasta la entrega
+ * se guarda en la columna donaciones.estado como ENUM de MySQL (1 byte por fila)
+ * si se agrega uno nuevo, al arrancar MigracionEstadoDonacionesService amplía la columna
  */
 public enum EstadoDonacion {
+    PENDIENTE,
+
+    VERIFICADA,
+
+    RECHAZADA,
+
     RECIBIDA,
 
     CLASIFICADA,
@@ -13,5 +22,34 @@ public enum EstadoDonacion {
 
     ENTREGADA,
 
-    CANCELADA
-}
\ No newline at end of file
+    CANCELADA;
+
+    /**
+     * transiciones permitidas: el flujo va siempre hacia adelante
+     * PENDIENTE -> VERIFICADA -> RECIBIDA -> CLASIFICADA -> DISTRIBUIDA -> ENTREGADA
+     * antes de recibirla se puede rechazar y hasta que se entrega se puede cancelar
+     * RECHAZADA, CANCELADA y ENTREGADA son finales
+     */
+    public boolean puedePasarA(EstadoDonacion destino) {
+        return switch (this) {
+            case PENDIENTE -> destino == VERIFICADA || destino == RECHAZADA || destino == CANCELADA;
+            case VERIFICADA -> destino == RECIBIDA || destino == RECHAZADA || destino == CANCELADA;
+            case RECIBIDA -> destino == CLASIFICADA || destino == CANCELADA;
+            case CLASIFICADA -> destino == DISTRIBUIDA || destino == CANCELADA;
+            case DISTRIBUIDA -> destino == ENTREGADA || destino == CANCELADA;
+            case RECHAZADA, ENTREGADA, CANCELADA -> false;
+        };
+    }
+
+    /** el estado con ese nombre (sin importar mayúsculas ni espacios); null si no es ninguno */
+    public static EstadoDonacion desde(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return valueOf(valor.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
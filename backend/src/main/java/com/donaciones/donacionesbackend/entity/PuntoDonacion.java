@@ -1,6 +1,9 @@
 package com.donaciones.donacionesbackend.entity;
 
+import com.donaciones.donacionesbackend.util.TiposDonacion;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalTime;
 import java.time.LocalDateTime;
 
@@ -9,7 +12,16 @@ import java.time.LocalDateTime;
  * Acá guardo ubicación, horarios, tipos aceptados y el flujo de aprobación por el admin
  */
 @Entity
-@Table(name = "puntos_donacion")
+@Table(name = "puntos_donacion", indexes = {
+    @Index(name = "idx_puntos_tipos_mask", columnList = "tipos_mask, activo"),
+    @Index(name = "idx_puntos_creador", columnList = "usuario_creador_id, tipo_creador"),
+    // Listados paginados por cursor: cada orden (y su desempate por id) sale del índice, sin ordenar
+    @Index(name = "idx_puntos_fecha_creacion", columnList = "fecha_creacion, id"),
+    @Index(name = "idx_puntos_nombre", columnList = "nombre, id"),
+    @Index(name = "idx_puntos_estado_fecha", columnList = "estado, fecha_creacion, id"),
+    @Index(name = "idx_puntos_estado_nombre", columnList = "estado, nombre, id"),
+    @Index(name = "idx_puntos_creador_fecha", columnList = "usuario_creador_id, tipo_creador, fecha_creacion, id")
+})
 public class PuntoDonacion {
     
     @Id
@@ -31,6 +43,13 @@ public class PuntoDonacion {
     @Column(nullable = false)
     private String tipoDonacion; // JSON string con los tipos de donación aceptados
     
+    /**
+     * Los mismos tipos que tipoDonacion pero como máscara de bits (ver TiposDonacion)
+     * Se recalcula sola al guardar y tiene índice para filtrar por tipo sin leer el JSON
+     */
+    @Column(name = "tipos_mask")
+    private Integer tiposMask;
+    
     @Column(name = "horario_apertura")
     private LocalTime horarioApertura; // Hora de apertura 
     
@@ -82,9 +101,20 @@ public class PuntoDonacion {
     @Column(name = "motivo_rechazo", columnDefinition = "TEXT")
     private String motivoRechazo;
     
-    @Column(name = "fecha_creacion")
+    // Clave de los cursores de los listados: no puede ser NULL (ver MigracionClavesCursorService)
+    @Column(name = "fecha_creacion", nullable = false)
     private LocalDateTime fechaCreacion = LocalDateTime.now();
     
+    /**
+     * Cuántos donantes lo tienen en favoritos (para el resumen de la organización)
+     * Hibernate nunca lo escribe: solo lo tocan los UPDATE de ResumenOrganizacionService
+     * No va en el JSON porque el snapshot del mapa no se invalida cuando cambia
+     */
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "cantidad_favoritos", nullable = false, insertable = false, updatable = false)
+    private int cantidadFavoritos;
+    
     // Constructores
     public PuntoDonacion() {}
     
@@ -96,6 +126,7 @@ public class PuntoDonacion {
         this.latitud = latitud;
         this.longitud = longitud;
         this.tipoDonacion = tipoDonacion;
+        this.tiposMask = TiposDonacion.mascara(tipoDonacion);
         this.horarioApertura = horarioApertura;
         this.horarioCierre = horarioCierre;
         this.telefono = telefono;
@@ -120,7 +151,12 @@ public class PuntoDonacion {
     public void setLongitud(Double longitud) { this.longitud = longitud; }
     
     public String getTipoDonacion() { return tipoDonacion; }
-    public void setTipoDonacion(String tipoDonacion) { this.tipoDonacion = tipoDonacion; }
+    public void setTipoDonacion(String tipoDonacion) {
+        this.tipoDonacion = tipoDonacion;
+        this.tiposMask = TiposDonacion.mascara(tipoDonacion);
+    }
+    
+    public Integer getTiposMask() { return tiposMask; }
     
     public LocalTime getHorarioApertura() { return horarioApertura; }
     public void setHorarioApertura(LocalTime horarioApertura) { this.horarioApertura = horarioApertura; }
@@ -155,6 +191,15 @@ public class PuntoDonacion {
     public Rol getTipoCreador() { return tipoCreador; }
     public void setTipoCreador(Rol tipoCreador) { this.tipoCreador = tipoCreador; }
     
+    public int getCantidadFavoritos() { return cantidadFavoritos; }
+    
     public String getMotivoRechazo() { return motivoRechazo; }
     public void setMotivoRechazo(String motivoRechazo) { this.motivoRechazo = motivoRechazo; }
+    
+    // Mantengo la máscara alineada con el texto aunque el punto venga de antes de la migración
+    @PrePersist
+    @PreUpdate
+    private void sincronizarTiposMask() {
+        this.tiposMask = TiposDonacion.mascara(tipoDonacion);
+    }
 }
@@ -0,0 +1,30 @@
+package com.donaciones.donacionesbackend.event;
+
+import com.donaciones.donacionesbackend.entity.Donacion;
+import com.donaciones.donacionesbackend.entity.EstadoDonacion;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * evento que se publica dentro de la transacción que registra donaciones o les cambia el estado
+ * lo escuchan los contadores en memoria después del commit (si hay rollback no llega)
+ * en un alta anteriores viene vacío; en un cambio de estado trae id -> estado que tenía antes
+ */
+public record DonacionesCambiadasEvent(Tipo tipo, List<Donacion> donaciones, Map<Long, EstadoDonacion> anteriores) {
+
+    public enum Tipo {
+        REGISTRADAS,
+
+        ESTADO_CAMBIADO
+    }
+
+    public static DonacionesCambiadasEvent registradas(List<Donacion> donaciones) {
+        return new DonacionesCambiadasEvent(Tipo.REGISTRADAS, donaciones, Map.of());
+    }
+
+    public static DonacionesCambiadasEvent estadosCambiados(List<Donacion> donaciones,
+                                                            Map<Long, EstadoDonacion> anteriores) {
+        return new DonacionesCambiadasEvent(Tipo.ESTADO_CAMBIADO, donaciones, anteriores);
+    }
+}
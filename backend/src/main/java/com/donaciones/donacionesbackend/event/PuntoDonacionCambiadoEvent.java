@@ -0,0 +1,25 @@
+package com.donaciones.donacionesbackend.event;
+
+import com.donaciones.donacionesbackend.entity.PuntoDonacion;
+
+/**
+ * evento que publica el controlador cada vez que un punto se guarda o se borra
+ * lo escuchan las estructuras en memoria (índice espacial, etc.) para mantenerse al día
+ * cuando se elimina, punto viene null y solo sirve el id
+ */
+public record PuntoDonacionCambiadoEvent(Tipo tipo, Long puntoId, PuntoDonacion punto) {
+
+    public enum Tipo {
+        GUARDADO,
+
+        ELIMINADO
+    }
+
+    public static PuntoDonacionCambiadoEvent guardado(PuntoDonacion punto) {
+        return new PuntoDonacionCambiadoEvent(Tipo.GUARDADO, punto.getId(), punto);
+    }
+
+    public static PuntoDonacionCambiadoEvent eliminado(Long puntoId) {
+        return new PuntoDonacionCambiadoEvent(Tipo.ELIMINADO, puntoId, null);
+    }
+}
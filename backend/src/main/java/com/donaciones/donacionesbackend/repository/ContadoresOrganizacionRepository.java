@@ -0,0 +1,60 @@
+package com.donaciones.donacionesbackend.repository;
+
+import com.donaciones.donacionesbackend.entity.ContadoresOrganizacion;
+import com.donaciones.donacionesbackend.entity.Rol;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * contadores del resumen de cada organización
+ * se modifican siempre con UPDATE relativos (x = x + delta) para no pisar otros cambios concurrentes
+ */
+@Repository
+public interface ContadoresOrganizacionRepository extends JpaRepository<ContadoresOrganizacion, Long> {
+
+    /** Suma (o resta) a los contadores; devuelve 0 si la organización todavía no tiene fila */
+    @Modifying
+    @Query("UPDATE ContadoresOrganizacion c SET c.pendientes = c.pendientes + :pendientes, " +
+           "c.activos = c.activos + :activos, c.rechazados = c.rechazados + :rechazados, " +
+           "c.favoritos = c.favoritos + :favoritos, c.version = c.version + 1 " +
+           "WHERE c.organizacionId = :organizacionId")
+    int sumar(@Param("organizacionId") Long organizacionId,
+              @Param("pendientes") long pendientes,
+              @Param("activos") long activos,
+              @Param("rechazados") long rechazados,
+              @Param("favoritos") long favoritos);
+
+    /** Suma a los favoritos de la organización dueña del punto (si el punto es de una) */
+    @Modifying
+    @Query("UPDATE ContadoresOrganizacion c SET c.favoritos = c.favoritos + :delta, c.version = c.version + 1 " +
+           "WHERE c.organizacionId = (SELECT p.usuarioCreadorId FROM PuntoDonacion p " +
+           "WHERE p.id = :puntoId AND p.tipoCreador = :tipo)")
+    int sumarFavoritosDelCreador(@Param("puntoId") Long puntoId, @Param("delta") long delta,
+                                 @Param("tipo") Rol tipo);
+
+    /**
+     * Corrección de la reconciliación: pisa los valores solo si la versión no cambió desde que se leyó
+     * devuelve 0 si en el medio entró otro cambio (se vuelve a mirar en la próxima pasada)
+     */
+    @Modifying
+    @Query("UPDATE ContadoresOrganizacion c SET c.pendientes = :pendientes, c.activos = :activos, " +
+           "c.rechazados = :rechazados, c.favoritos = :favoritos, c.version = c.version + 1, " +
+           "c.fechaReconciliacion = :fecha WHERE c.organizacionId = :organizacionId AND c.version = :version")
+    int corregir(@Param("organizacionId") Long organizacionId,
+                 @Param("version") Long version,
+                 @Param("pendientes") long pendientes,
+                 @Param("activos") long activos,
+                 @Param("rechazados") long rechazados,
+                 @Param("favoritos") long favoritos,
+                 @Param("fecha") LocalDateTime fecha);
+
+    /** Marca como revisadas las filas que ya estaban bien */
+    @Modifying
+    @Query("UPDATE ContadoresOrganizacion c SET c.fechaReconciliacion = :fecha")
+    int marcarReconciliadas(@Param("fecha") LocalDateTime fecha);
+}
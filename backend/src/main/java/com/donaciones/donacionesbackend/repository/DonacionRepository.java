@@ -2,6 +2,10 @@ package com.donaciones.donacionesbackend.repository;
 
 import com.donaciones.donacionesbackend.entity.Donacion;
 import com.donaciones.donacionesbackend.entity.EstadoDonacion;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,11 +16,13 @@ import java.util.List;
 
 /**
  * consultas sobre donaciones, filtros por estado, punto, fechas y reportes
+ * solo ven la tabla activa: las entregadas y canceladas viejas se mueven a donaciones_archivo
+ * (ver ArchivoDonacionesService); los reportes y estadísticas leen las dos tablas
  */
 @Repository
 public interface DonacionRepository extends JpaRepository<Donacion, Long> {
     
-    List<Donacion> findByEstado(String estado);
+    List<Donacion> findByEstado(EstadoDonacion estado);
     
     /** Donaciones registradas en un punto específico del mapa */
     List<Donacion> findByPuntoDonacionId(Long puntoDonacionId);
@@ -35,8 +41,14 @@ public interface DonacionRepository extends JpaRepository<Donacion, Long> {
                                             @Param("fechaFin") LocalDateTime fechaFin);
     
     @Query("SELECT COUNT(d) FROM Donacion d WHERE d.estado = :estado")
-    Long countByEstado(@Param("estado") String estado);
+    Long countByEstado(@Param("estado") EstadoDonacion estado);
     
-    @Query("SELECT d FROM Donacion d WHERE d.estado = :estado ORDER BY d.fechaDonacion DESC")
-    List<Donacion> findByEstadoOrderByFechaDonacionDesc(@Param("estado") String estado);
+    /**
+     * Historial paginado por keyset, ordenado por (fechaDonacion, id)
+     * con estado recorre el índice (estado, fecha_donacion, id) desde el último elemento de la página anterior,
+     * sin ordenar ni saltear filas; sin estado usa el de fecha_donacion (InnoDB le agrega el id)
+     */
+    Window<Donacion> findByEstado(EstadoDonacion estado, ScrollPosition posicion, Sort sort, Limit limite);
+    
+    Window<Donacion> findAllBy(ScrollPosition posicion, Sort sort, Limit limite);
 }
\ No newline at end of file
@@ -2,8 +2,12 @@ package com.donaciones.donacionesbackend.repository;
 
 import com.donaciones.donacionesbackend.entity.Favorito;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,8 +24,13 @@ public interface FavoritoRepository extends JpaRepository<Favorito, Long> {
     
     void deleteByUsuarioIdAndPuntoDonacionId(Long usuarioId, Long puntoDonacionId);
 
-    // Borra todos los favoritos de un punto (antes de eliminar el punto)
-    void deleteByPuntoDonacionId(Long puntoDonacionId);
+    /**
+     * Borra todos los favoritos de esos puntos (antes de eliminarlos) con un solo DELETE
+     * el deleteBy derivado cargaba cada favorito y los borraba de a uno
+     */
+    @Modifying
+    @Query("DELETE FROM Favorito f WHERE f.puntoDonacionId IN :puntoIds")
+    int deleteByPuntoDonacionIdIn(@Param("puntoIds") Collection<Long> puntoIds);
     
     /** Comprueba rápido si ya marcó ese punto como favorito. */
     boolean existsByUsuarioIdAndPuntoDonacionId(Long usuarioId, Long puntoDonacionId);
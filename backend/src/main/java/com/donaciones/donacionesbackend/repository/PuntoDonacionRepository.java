@@ -1,14 +1,23 @@
 package com.donaciones.donacionesbackend.repository;
 
+import com.donaciones.donacionesbackend.dto.ConteoPuntos;
+import com.donaciones.donacionesbackend.dto.FavoritosPunto;
+import com.donaciones.donacionesbackend.dto.PinPunto;
+import com.donaciones.donacionesbackend.dto.PuntoPendiente;
 import com.donaciones.donacionesbackend.entity.PuntoDonacion;
-import com.donaciones.donacionesbackend.entity.TipoDonacion;
 import com.donaciones.donacionesbackend.entity.EstadoPunto;
 import com.donaciones.donacionesbackend.entity.Rol;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -21,8 +30,11 @@ public interface PuntoDonacionRepository extends JpaRepository<PuntoDonacion, Lo
     // Buscar puntos activos
     List<PuntoDonacion> findByActivoTrue();
     
-    // Buscar por tipo de donación
-    List<PuntoDonacion> findByTipoDonacionAndActivoTrue(TipoDonacion tipoDonacion);
+    /**
+     * Buscar por tipo de donación usando la máscara de bits
+     * las máscaras que cumplen el filtro las arma TiposDonacion.mascarasQueCoinciden
+     */
+    List<PuntoDonacion> findByTiposMaskInAndActivoTrue(Collection<Integer> mascaras);
     
     /** puntos dentro de un radio en km desde la ubicación del usuario */
     @Query("SELECT p FROM PuntoDonacion p WHERE p.activo = true AND " +
@@ -39,9 +51,103 @@ public interface PuntoDonacionRepository extends JpaRepository<PuntoDonacion, Lo
     // Buscar por estado
     List<PuntoDonacion> findByEstado(EstadoPunto estado);
     
+    /**
+     * Pendientes con el nombre de la organización creadora en una sola consulta
+     * LEFT JOIN porque puede no haber organización (creador null o borrado)
+     */
+    @Query("SELECT new com.donaciones.donacionesbackend.dto.PuntoPendiente(" +
+           "p.id, p.nombre, p.direccion, p.latitud, p.longitud, p.tipoDonacion, " +
+           "p.horarioApertura, p.horarioCierre, p.telefono, p.email, p.activo, p.estado, " +
+           "p.motivoRechazo, p.usuarioCreadorId, p.tipoCreador, o.nombre) " +
+           "FROM PuntoDonacion p LEFT JOIN Organizacion o ON o.id = p.usuarioCreadorId " +
+           "WHERE p.estado = :estado")
+    List<PuntoPendiente> findPendientesConOrganizacion(@Param("estado") EstadoPunto estado);
+    
     // Buscar por estado y activo
     List<PuntoDonacion> findByActivoTrueAndEstado(EstadoPunto estado);
     
+    /**
+     * Marcadores del mapa público: solo las columnas que necesita el pin
+     * no trae direccion ni motivo_rechazo (TEXT) ni los campos legacy
+     */
+    @Query("SELECT new com.donaciones.donacionesbackend.dto.PinPunto(" +
+           "p.id, p.nombre, p.latitud, p.longitud, p.tipoDonacion, p.tiposMask, p.horarioApertura, p.horarioCierre) " +
+           "FROM PuntoDonacion p WHERE p.activo = true AND p.estado = :estado")
+    List<PinPunto> findPines(@Param("estado") EstadoPunto estado);
+    
     /** Puntos creados por una organización o admin concreto */
     List<PuntoDonacion> findByUsuarioCreadorIdAndTipoCreador(Long usuarioCreadorId, Rol tipoCreador);
+    
+    /**
+     * De esos ids, los que el usuario puede eliminar (usuarioId null = admin, puede todos)
+     * una organización puede borrar los suyos; los puntos sin creador los puede borrar cualquiera,
+     * salvo que estén marcados como de organización y ya no estén PENDIENTE ni ACTIVO
+     */
+    @Query("SELECT p.id FROM PuntoDonacion p WHERE p.id IN :ids AND (" +
+           ":usuarioId IS NULL OR p.usuarioCreadorId = :usuarioId OR (p.usuarioCreadorId IS NULL AND (" +
+           "p.tipoCreador IS NULL OR p.tipoCreador <> com.donaciones.donacionesbackend.entity.Rol.ORGANIZACION OR " +
+           "p.estado IN (com.donaciones.donacionesbackend.entity.EstadoPunto.PENDIENTE, " +
+           "com.donaciones.donacionesbackend.entity.EstadoPunto.ACTIVO))))")
+    List<Long> findIdsEliminables(@Param("ids") Collection<Long> ids, @Param("usuarioId") Long usuarioId);
+    
+    @Query("SELECT p.id FROM PuntoDonacion p WHERE p.id IN :ids")
+    List<Long> findIdsExistentes(@Param("ids") Collection<Long> ids);
+    
+    /** Borra los puntos con un solo DELETE (los favoritos se borran antes por la FK) */
+    @Modifying
+    @Query("DELETE FROM PuntoDonacion p WHERE p.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Puntos por organización y estado, con los favoritos que suman
+     * lo usa la reconciliación de los contadores del resumen (un solo recorrido de la tabla)
+     */
+    @Query("SELECT new com.donaciones.donacionesbackend.dto.ConteoPuntos(" +
+           "p.usuarioCreadorId, p.estado, COUNT(p), SUM(p.cantidadFavoritos)) " +
+           "FROM PuntoDonacion p WHERE p.tipoCreador = :tipo AND p.usuarioCreadorId IS NOT NULL " +
+           "GROUP BY p.usuarioCreadorId, p.estado")
+    List<ConteoPuntos> contarPorOrganizacion(@Param("tipo") Rol tipo);
+    
+    /** Lo mismo para una sola organización (cuando se crea su fila de contadores) */
+    @Query("SELECT new com.donaciones.donacionesbackend.dto.ConteoPuntos(" +
+           "p.usuarioCreadorId, p.estado, COUNT(p), SUM(p.cantidadFavoritos)) " +
+           "FROM PuntoDonacion p WHERE p.usuarioCreadorId = :organizacionId AND p.tipoCreador = :tipo " +
+           "GROUP BY p.usuarioCreadorId, p.estado")
+    List<ConteoPuntos> contarDeOrganizacion(@Param("organizacionId") Long organizacionId, @Param("tipo") Rol tipo);
+    
+    /** Lo mismo pero solo de esos puntos (antes de borrarlos, para descontarlos) */
+    @Query("SELECT new com.donaciones.donacionesbackend.dto.ConteoPuntos(" +
+           "p.usuarioCreadorId, p.estado, COUNT(p), SUM(p.cantidadFavoritos)) " +
+           "FROM PuntoDonacion p WHERE p.id IN :ids AND p.tipoCreador = :tipo AND p.usuarioCreadorId IS NOT NULL " +
+           "GROUP BY p.usuarioCreadorId, p.estado")
+    List<ConteoPuntos> contarPorOrganizacionDe(@Param("ids") Collection<Long> ids, @Param("tipo") Rol tipo);
+    
+    /** Favoritos de cada punto de una organización, los más guardados primero */
+    @Query("SELECT new com.donaciones.donacionesbackend.dto.FavoritosPunto(p.id, p.nombre, p.estado, p.cantidadFavoritos) " +
+           "FROM PuntoDonacion p WHERE p.usuarioCreadorId = :organizacionId AND p.tipoCreador = :tipo " +
+           "ORDER BY p.cantidadFavoritos DESC, p.id")
+    List<FavoritosPunto> findFavoritosPorPunto(@Param("organizacionId") Long organizacionId, @Param("tipo") Rol tipo);
+    
+    /** Suma (o resta) al contador de favoritos del punto */
+    @Modifying
+    @Query("UPDATE PuntoDonacion p SET p.cantidadFavoritos = p.cantidadFavoritos + :delta WHERE p.id = :id")
+    int sumarFavoritos(@Param("id") Long id, @Param("delta") int delta);
+    
+    /** Recalcula el contador de favoritos de los puntos donde no coincide con la tabla; devuelve cuántos corrigió */
+    @Modifying
+    @Query("UPDATE PuntoDonacion p SET p.cantidadFavoritos = " +
+           "(SELECT COUNT(f) FROM Favorito f WHERE f.puntoDonacionId = p.id) " +
+           "WHERE p.cantidadFavoritos <> (SELECT COUNT(f) FROM Favorito f WHERE f.puntoDonacionId = p.id)")
+    int reconciliarFavoritos();
+    
+    /**
+     * Versiones paginadas por keyset de los listados anteriores
+     * Spring Data arma el WHERE con los valores del último elemento en vez de usar OFFSET
+     */
+    Window<PuntoDonacion> findAllBy(ScrollPosition posicion, Sort sort, Limit limite);
+    
+    Window<PuntoDonacion> findByEstado(EstadoPunto estado, ScrollPosition posicion, Sort sort, Limit limite);
+    
+    Window<PuntoDonacion> findByUsuarioCreadorIdAndTipoCreador(Long usuarioCreadorId, Rol tipoCreador,
+                                                               ScrollPosition posicion, Sort sort, Limit limite);
 }
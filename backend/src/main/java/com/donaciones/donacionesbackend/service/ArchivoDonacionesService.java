@@ -0,0 +1,121 @@
+package com.donaciones.donacionesbackend.service;
+
+import com.donaciones.donacionesbackend.entity.EstadoDonacion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * archivo de donaciones viejas: las ENTREGADA y CANCELADA con más de antiguedad-dias pasan de la tabla
+ * donaciones a donaciones_archivo. Las pantallas del día a día miran los últimos meses; así la tabla
+ * activa y sus índices quedan chicos (entran en el buffer pool) aunque el historial siga creciendo.
+ * Se mueven de a lotes chicos, cada uno en su transacción (INSERT ... SELECT y DELETE de los mismos ids),
+ * para no tener bloqueadas muchas filas ni armar un undo enorme. Esos estados son finales, ninguna
+ * transición las vuelve a tocar. Los totales diarios y los contadores no cambian: cuentan las dos tablas
+ */
+@Service
+public class ArchivoDonacionesService {
+
+    private static final String COLUMNAS = "id, punto_donacion_id, donante_id, tipo_donacion, cantidad, descripcion, " +
+        "estado, fecha_donacion, version, beneficiario_id, fecha_entrega, observaciones";
+
+    // Estados que se archivan (RECHAZADA también es final pero queda en la tabla activa)
+    private static final List<EstadoDonacion> ARCHIVABLES = List.of(EstadoDonacion.ENTREGADA, EstadoDonacion.CANCELADA);
+
+    // Un estado por vez: con estado fijo el índice (estado, fecha_donacion, id) ya da el orden y el LIMIT corta
+    // ahí (con IN de dos estados habría que juntar y ordenar todo lo elegible). FOR UPDATE para que el lote
+    // no cambie hasta el DELETE
+    private static final String ELEGIR = "SELECT id FROM donaciones WHERE estado = ? " +
+        "AND fecha_donacion < ? ORDER BY fecha_donacion, id LIMIT ? FOR UPDATE";
+
+    private static final String COPIAR = "INSERT INTO donaciones_archivo (" + COLUMNAS + ", fecha_archivo) " +
+        "SELECT " + COLUMNAS + ", ? FROM donaciones WHERE id IN (%s)";
+
+    private static final String BORRAR = "DELETE FROM donaciones WHERE id IN (%s)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Días desde fecha_donacion para que una donación cerrada pase al archivo
+    @Value("${app.archivo-donaciones.antiguedad-dias:180}")
+    private int antiguedadDias;
+
+    // Donaciones por transacción
+    @Value("${app.archivo-donaciones.lote:1000}")
+    private int tamanoLote;
+
+    // Pausa entre lotes para no acaparar la base mientras hay tráfico
+    @Value("${app.archivo-donaciones.pausa-ms:200}")
+    private long pausaMs;
+
+    private final AtomicBoolean enCurso = new AtomicBoolean(false);
+
+    // De noche, cuando casi no hay tráfico
+    @Scheduled(cron = "${app.archivo-donaciones.cron:0 30 4 * * *}")
+    public void archivarProgramado() {
+        try {
+            archivar();
+        } catch (Exception e) {
+            System.err.println("No se pudieron archivar las donaciones: " + e.getMessage());
+        }
+    }
+
+    /**
+     * mueve al archivo todo lo que corresponde, lote por lote, y devuelve cuántas donaciones movió
+     * si se corta en el medio, lo que ya se movió queda bien (cada lote es completo) y sigue la próxima vez
+     * lanza IllegalStateException si ya hay un archivado en curso
+     */
+    public int archivar() throws InterruptedException {
+        if (!enCurso.compareAndSet(false, true)) {
+            throw new IllegalStateException("Ya hay un archivado de donaciones en curso");
+        }
+        try {
+            LocalDateTime limite = LocalDateTime.now().minusDays(antiguedadDias);
+            int total = 0;
+            for (EstadoDonacion estado : ARCHIVABLES) {
+                while (true) {
+                    Integer movidas = transactionTemplate.execute(status -> moverLote(estado, limite));
+                    total += movidas;
+                    if (movidas < tamanoLote) {
+                        break;
+                    }
+                    Thread.sleep(pausaMs);
+                }
+            }
+            if (total > 0) {
+                System.out.println("Donaciones archivadas: " + total + " (anteriores a " + limite.toLocalDate() + ")");
+            }
+            return total;
+        } finally {
+            enCurso.set(false);
+        }
+    }
+
+    private int moverLote(EstadoDonacion estado, LocalDateTime limite) {
+        List<Long> ids = jdbcTemplate.queryForList(ELEGIR, Long.class, estado.name(), Timestamp.valueOf(limite), tamanoLote);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String marcadores = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        Object[] parametros = new Object[ids.size() + 1];
+        parametros[0] = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < ids.size(); i++) {
+            parametros[i + 1] = ids.get(i);
+        }
+        jdbcTemplate.update(String.format(COPIAR, marcadores), parametros);
+        jdbcTemplate.update(String.format(BORRAR, marcadores), ids.toArray());
+        return ids.size();
+    }
+}
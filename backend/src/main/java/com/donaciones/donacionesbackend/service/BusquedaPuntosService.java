@@ -0,0 +1,239 @@
+package com.donaciones.donacionesbackend.service;
+
+import com.donaciones.donacionesbackend.entity.PuntoDonacion;
+import com.donaciones.donacionesbackend.event.PuntoDonacionCambiadoEvent;
+import com.donaciones.donacionesbackend.repository.PuntoDonacionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * índice invertido de trigramas sobre nombre y dirección de los puntos activos
+ * normalizo sin tildes ni mayúsculas ("San José" y "jose" dan lo mismo) y parto cada palabra
+ * en grupos de 3 letras. Buscar es juntar los puntos que comparten trigramas con la consulta
+ * y ordenarlos por qué fracción de la consulta aparece, así tolera errores de tipeo
+ * y el tiempo no depende de recorrer toda la tabla con LIKE '%x%'
+ */
+@Service
+public class BusquedaPuntosService {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern NO_ALFANUMERICO = Pattern.compile("[^a-z0-9]+");
+
+    // Lo que coincide en la dirección pesa un poco menos que lo que coincide en el nombre
+    private static final double PESO_DIRECCION = 0.8;
+
+    @Autowired
+    private PuntoDonacionRepository puntoDonacionRepository;
+
+    // Fracción mínima de trigramas de la consulta que tiene que tener un punto para aparecer
+    @Value("${app.busqueda.umbral:0.3}")
+    private double umbral;
+
+    // trigrama -> ids de los puntos que lo contienen (en nombre o dirección)
+    private final Map<String, Set<Long>> indice = new ConcurrentHashMap<>();
+
+    private final Map<Long, Documento> documentos = new ConcurrentHashMap<>();
+
+    private volatile boolean cargado = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        asegurarCargado();
+    }
+
+    /**
+     * puntos activos que se parecen a la consulta, del más parecido al menos parecido
+     * lo usa /puntos-donacion/buscar
+     */
+    public List<PuntoDonacion> buscar(String consulta, int limite) {
+        if (!asegurarCargado()) {
+            List<PuntoDonacion> puntos = puntoDonacionRepository.findByNombreContainingIgnoreCaseAndActivoTrue(consulta);
+            return puntos.size() > limite ? puntos.subList(0, limite) : puntos;
+        }
+
+        String consultaNormalizada = normalizar(consulta);
+        Set<String> trigramasConsulta = trigramas(consultaNormalizada);
+        if (trigramasConsulta.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Cuento cuántos trigramas de la consulta tiene cada punto
+        Map<Long, Integer> coincidencias = new HashMap<>();
+        for (String trigrama : trigramasConsulta) {
+            Set<Long> ids = indice.get(trigrama);
+            if (ids != null) {
+                for (Long id : ids) {
+                    coincidencias.merge(id, 1, Integer::sum);
+                }
+            }
+        }
+
+        int minimo = (int) Math.ceil(umbral * trigramasConsulta.size());
+        List<Resultado> resultados = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entrada : coincidencias.entrySet()) {
+            if (entrada.getValue() < minimo) {
+                continue;
+            }
+            Documento documento = documentos.get(entrada.getKey());
+            if (documento == null) {
+                continue; // lo sacaron mientras buscaba
+            }
+            double puntaje = puntuar(documento, consultaNormalizada, trigramasConsulta);
+            if (puntaje >= umbral) {
+                resultados.add(new Resultado(documento.punto(), puntaje));
+            }
+        }
+
+        resultados.sort(Comparator.comparingDouble(Resultado::puntaje).reversed()
+            .thenComparing(r -> r.punto().getNombre(), String.CASE_INSENSITIVE_ORDER));
+        List<PuntoDonacion> puntos = new ArrayList<>(Math.min(limite, resultados.size()));
+        for (int i = 0; i < resultados.size() && i < limite; i++) {
+            puntos.add(resultados.get(i).punto());
+        }
+        return puntos;
+    }
+
+    /** actualiza el índice después del commit de un alta, cambio o baja */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPuntoCambiado(PuntoDonacionCambiadoEvent evento) {
+        // Con el mismo monitor que la carga: un cambio que llega mientras se carga se aplica al terminar
+        synchronized (this) {
+            if (!cargado) {
+                return;
+            }
+            quitar(evento.puntoId());
+            PuntoDonacion punto = evento.punto();
+            if (evento.tipo() == PuntoDonacionCambiadoEvent.Tipo.GUARDADO && esBuscable(punto)) {
+                agregar(punto);
+            }
+        }
+    }
+
+    /** minúsculas, sin tildes y solo letras/números separados por un espacio */
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinTildes = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return NO_ALFANUMERICO.matcher(sinTildes.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /** trigramas de cada palabra, con dos espacios adelante y uno atrás como hace pg_trgm */
+    static Set<String> trigramas(String textoNormalizado) {
+        Set<String> resultado = new HashSet<>();
+        if (textoNormalizado.isEmpty()) {
+            return resultado;
+        }
+        for (String palabra : textoNormalizado.split(" ")) {
+            String relleno = "  " + palabra + " ";
+            for (int i = 0; i + 3 <= relleno.length(); i++) {
+                resultado.add(relleno.substring(i, i + 3));
+            }
+        }
+        return resultado;
+    }
+
+    // Fracción de la consulta presente en el nombre o la dirección; si aparece literal, va primero
+    private static double puntuar(Documento documento, String consulta, Set<String> trigramasConsulta) {
+        int enNombre = 0;
+        int enDireccion = 0;
+        for (String trigrama : trigramasConsulta) {
+            if (documento.trigramasNombre().contains(trigrama)) {
+                enNombre++;
+            }
+            if (documento.trigramasDireccion().contains(trigrama)) {
+                enDireccion++;
+            }
+        }
+        double total = trigramasConsulta.size();
+        double puntaje = Math.max(enNombre / total, PESO_DIRECCION * enDireccion / total);
+        if (documento.nombre().contains(consulta)) {
+            puntaje += 1.0;
+        } else if (documento.direccion().contains(consulta)) {
+            puntaje += PESO_DIRECCION;
+        }
+        return puntaje;
+    }
+
+    private boolean asegurarCargado() {
+        if (cargado) {
+            return true;
+        }
+        synchronized (this) {
+            if (cargado) {
+                return true;
+            }
+            try {
+                indice.clear();
+                documentos.clear();
+                for (PuntoDonacion punto : puntoDonacionRepository.findByActivoTrue()) {
+                    if (esBuscable(punto)) {
+                        agregar(punto);
+                    }
+                }
+                cargado = true;
+                System.out.println("Índice de búsqueda cargado con " + documentos.size() + " puntos");
+            } catch (Exception e) {
+                System.err.println("No se pudo cargar el índice de búsqueda: " + e.getMessage());
+            }
+            return cargado;
+        }
+    }
+
+    private void agregar(PuntoDonacion punto) {
+        String nombre = normalizar(punto.getNombre());
+        String direccion = normalizar(punto.getDireccion());
+        Documento documento = new Documento(punto, nombre, direccion, trigramas(nombre), trigramas(direccion));
+        documentos.put(punto.getId(), documento);
+        for (String trigrama : documento.trigramasNombre()) {
+            indice.computeIfAbsent(trigrama, t -> ConcurrentHashMap.newKeySet()).add(punto.getId());
+        }
+        for (String trigrama : documento.trigramasDireccion()) {
+            indice.computeIfAbsent(trigrama, t -> ConcurrentHashMap.newKeySet()).add(punto.getId());
+        }
+    }
+
+    private void quitar(Long puntoId) {
+        Documento documento = documentos.remove(puntoId);
+        if (documento == null) {
+            return;
+        }
+        Set<String> todos = new HashSet<>(documento.trigramasNombre());
+        todos.addAll(documento.trigramasDireccion());
+        for (String trigrama : todos) {
+            Set<Long> ids = indice.get(trigrama);
+            if (ids != null) {
+                ids.remove(puntoId);
+                if (ids.isEmpty()) {
+                    indice.remove(trigrama);
+                }
+            }
+        }
+    }
+
+    // Mismo criterio que la búsqueda original: cualquier punto activo
+    private static boolean esBuscable(PuntoDonacion punto) {
+        return punto != null && punto.getId() != null && Boolean.TRUE.equals(punto.getActivo());
+    }
+
+    private record Documento(PuntoDonacion punto, String nombre, String direccion,
+                             Set<String> trigramasNombre, Set<String> trigramasDireccion) {}
+
+    private record Resultado(PuntoDonacion punto, double puntaje) {}
+}
@@ -0,0 +1,122 @@
+package com.donaciones.donacionesbackend.service;
+
+import com.donaciones.donacionesbackend.dto.CambiosPuntosRespuesta;
+import com.donaciones.donacionesbackend.entity.EstadoPunto;
+import com.donaciones.donacionesbackend.entity.PuntoDonacion;
+import com.donaciones.donacionesbackend.event.PuntoDonacionCambiadoEvent;
+import com.donaciones.donacionesbackend.repository.PuntoDonacionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * registro de cambios de los puntos del mapa público, con versión creciente
+ * el frontend que ya tiene la lista pide solo lo que cambió desde su versión en lugar
+ * de volver a bajar todo. Guardo los últimos N cambios en memoria; si el cliente viene
+ * de más atrás (o de antes de un reinicio) le mando la lista completa
+ */
+@Service
+public class CambiosPuntosService {
+
+    @Autowired
+    private PuntoDonacionRepository puntoDonacionRepository;
+
+    // Cada cambio anotado se avisa a los mapas abiertos por SSE
+    @Autowired
+    private StreamPuntosService streamPuntosService;
+
+    // Cantidad de cambios que guardo antes de descartar los más viejos
+    @Value("${app.cambios-puntos.capacidad:1000}")
+    private int capacidad;
+
+    // Arranco en el reloj actual para que las versiones de una ejecución anterior queden
+    // por debajo de la primera de esta y el cliente haga una resincronización completa
+    private final long versionInicial = System.currentTimeMillis();
+
+    private final Deque<Cambio> cambios = new ArrayDeque<>();
+
+    private long versionActual = versionInicial;
+
+    /**
+     * cambios posteriores a la versión desde; un punto que cambió varias veces aparece una sola vez
+     * con su último estado. Si la versión ya no está en memoria, devuelvo la lista completa
+     */
+    public CambiosPuntosRespuesta cambiosDesde(long desde) {
+        synchronized (this) {
+            long versionMasVieja = cambios.isEmpty() ? versionActual : cambios.peekFirst().version() - 1;
+            if (desde >= versionMasVieja && desde <= versionActual) {
+                // Recorro del más nuevo al más viejo y me quedo con el último cambio de cada punto
+                Map<Long, Cambio> ultimoPorPunto = new LinkedHashMap<>();
+                Iterator<Cambio> it = cambios.descendingIterator();
+                while (it.hasNext()) {
+                    Cambio cambio = it.next();
+                    if (cambio.version() <= desde) {
+                        break;
+                    }
+                    ultimoPorPunto.putIfAbsent(cambio.puntoId(), cambio);
+                }
+                List<PuntoDonacion> puntos = new ArrayList<>();
+                List<Long> eliminados = new ArrayList<>();
+                for (Cambio cambio : ultimoPorPunto.values()) {
+                    if (cambio.punto() != null) {
+                        puntos.add(cambio.punto());
+                    } else {
+                        eliminados.add(cambio.puntoId());
+                    }
+                }
+                return new CambiosPuntosRespuesta(versionActual, false, puntos, eliminados);
+            }
+        }
+        return resincronizar();
+    }
+
+    /**
+     * anota el cambio después del commit
+     * si el punto dejó de verse en el mapa (rechazado, desactivado o borrado) queda como eliminado
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPuntoCambiado(PuntoDonacionCambiadoEvent evento) {
+        PuntoDonacion punto = evento.punto();
+        boolean visible = evento.tipo() == PuntoDonacionCambiadoEvent.Tipo.GUARDADO
+            && punto != null
+            && Boolean.TRUE.equals(punto.getActivo())
+            && punto.getEstado() == EstadoPunto.ACTIVO;
+        long version;
+        synchronized (this) {
+            version = ++versionActual;
+            cambios.addLast(new Cambio(version, evento.puntoId(), visible ? punto : null));
+            while (cambios.size() > capacidad) {
+                cambios.removeFirst();
+            }
+        }
+        streamPuntosService.publicar(version, evento.puntoId(), visible);
+    }
+
+    /** última versión anotada; es el id del primer evento del stream SSE */
+    public synchronized long getVersionActual() {
+        return versionActual;
+    }
+
+    // Lista completa desde la BD; leo la versión antes para no perder cambios que entren mientras tanto
+    private CambiosPuntosRespuesta resincronizar() {
+        long version;
+        synchronized (this) {
+            version = versionActual;
+        }
+        List<PuntoDonacion> puntos = puntoDonacionRepository.findByActivoTrueAndEstado(EstadoPunto.ACTIVO);
+        return new CambiosPuntosRespuesta(version, true, puntos, Collections.emptyList());
+    }
+
+    // punto null = tombstone
+    private record Cambio(long version, Long puntoId, PuntoDonacion punto) {}
+}
@@ -0,0 +1,238 @@
+package com.donaciones.donacionesbackend.service;
+
+import com.donaciones.donacionesbackend.dto.ContadoresDonaciones;
+import com.donaciones.donacionesbackend.entity.Donacion;
+import com.donaciones.donacionesbackend.entity.EstadoDonacion;
+import com.donaciones.donacionesbackend.event.DonacionesCambiadasEvent;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * cantidad de donaciones por estado, por punto y por tipo, en memoria (GET /donaciones/contadores)
+ * se cargan de la base al arrancar y después cada alta o cambio de estado suma o resta
+ * cuando su transacción hizo commit, así los tableros que consultan cada pocos segundos no tocan la base.
+ * Son LongAdder: muchos hilos sumando al mismo estado no se pisan ni se esperan entre sí.
+ * La reconciliación periódica vuelve a contar en la base y corrige lo que se haya desviado
+ */
+@Service
+public class ContadoresDonacionesService {
+
+    // Se cuenta en las dos tablas: archivar una donación no la saca de los totales
+    private static final String CONTAR = "SELECT estado, punto_donacion_id, tipo_donacion, COUNT(*) FROM %s " +
+        "GROUP BY estado, punto_donacion_id, tipo_donacion";
+
+    private static final List<String> TABLAS = List.of("donaciones", "donaciones_archivo");
+
+    // Veces que se repite la cuenta si algún contador cambió mientras se contaba
+    private static final int INTENTOS = 3;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate soloLectura;
+
+    // Los estados son fijos: el mapa se arma una vez y después solo se suma a cada LongAdder
+    private final Map<EstadoDonacion, LongAdder> porEstado = new EnumMap<>(EstadoDonacion.class);
+
+    private final Map<Long, LongAdder> porPunto = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> porTipo = new ConcurrentHashMap<>();
+
+    private volatile boolean cargado = false;
+
+    private volatile LocalDateTime fechaReconciliacion;
+
+    public ContadoresDonacionesService() {
+        for (EstadoDonacion estado : EstadoDonacion.values()) {
+            porEstado.put(estado, new LongAdder());
+        }
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        soloLectura = new TransactionTemplate(transactionManager);
+        soloLectura.setReadOnly(true);
+    }
+
+    /** totales actuales; si todavía no se pudieron cargar de la base, los carga ahora */
+    public ContadoresDonaciones obtener() {
+        if (!cargado) {
+            asegurarCargado();
+        }
+        Map<String, Long> estados = new LinkedHashMap<>();
+        long total = 0;
+        for (Map.Entry<EstadoDonacion, LongAdder> entrada : porEstado.entrySet()) {
+            long cantidad = entrada.getValue().sum();
+            estados.put(entrada.getKey().name(), cantidad);
+            total += cantidad;
+        }
+        return new ContadoresDonaciones(total, estados, sinCeros(porPunto), sinCeros(porTipo), fechaReconciliacion);
+    }
+
+    // Solo después del commit: una donación que no llegó a guardarse no cuenta
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDonacionesCambiadas(DonacionesCambiadasEvent evento) {
+        for (Donacion donacion : evento.donaciones()) {
+            if (evento.tipo() == DonacionesCambiadasEvent.Tipo.REGISTRADAS) {
+                sumar(donacion.getEstado(), 1);
+                porPunto.computeIfAbsent(donacion.getPuntoDonacionId(), id -> new LongAdder()).increment();
+                porTipo.computeIfAbsent(donacion.getTipoDonacion(), tipo -> new LongAdder()).increment();
+            } else {
+                EstadoDonacion anterior = evento.anteriores().get(donacion.getId());
+                if (anterior != null && anterior != donacion.getEstado()) {
+                    sumar(anterior, -1);
+                    sumar(donacion.getEstado(), 1);
+                }
+            }
+        }
+    }
+
+    /** cargo los contadores al arrancar; si la BD todavía no responde reintento en la primera consulta */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        try {
+            asegurarCargado();
+        } catch (Exception e) {
+            System.err.println("No se pudieron cargar los contadores de donaciones: " + e.getMessage());
+        }
+    }
+
+    /**
+     * cuenta en la base y corrige cada contador que no coincide, sumándole la diferencia
+     * (no se pisa el valor, así no se pierde lo que se sume mientras tanto). Si un contador cambió
+     * mientras se contaba no se puede saber si la cuenta ya lo incluía: ese se vuelve a contar
+     */
+    @Scheduled(initialDelayString = "${app.contadores-donaciones.reconciliar-ms:600000}",
+               fixedDelayString = "${app.contadores-donaciones.reconciliar-ms:600000}")
+    public void reconciliar() {
+        try {
+            reconciliarContadores();
+        } catch (Exception e) {
+            System.err.println("No se pudieron reconciliar los contadores de donaciones: " + e.getMessage());
+        }
+    }
+
+    private synchronized void asegurarCargado() {
+        if (!cargado) {
+            reconciliarContadores();
+            cargado = true;
+        }
+    }
+
+    private synchronized void reconciliarContadores() {
+        Pasada pasada = null;
+        for (int intento = 0; intento < INTENTOS && (pasada == null || pasada.inestables > 0); intento++) {
+            pasada = contarYCorregir();
+        }
+        fechaReconciliacion = LocalDateTime.now();
+        if (cargado && (pasada.corregidos > 0 || pasada.inestables > 0)) {
+            System.out.println("Contadores de donaciones reconciliados: " + pasada.corregidos + " corregidos, "
+                + pasada.inestables + " siguen cambiando (se revisan en la próxima pasada)");
+        }
+    }
+
+    private Pasada contarYCorregir() {
+        Map<EstadoDonacion, Long> estadosAntes = leer(porEstado);
+        Map<Long, Long> puntosAntes = leer(porPunto);
+        Map<String, Long> tiposAntes = leer(porTipo);
+
+        Map<EstadoDonacion, Long> estados = new EnumMap<>(EstadoDonacion.class);
+        Map<Long, Long> puntos = new HashMap<>();
+        Map<String, Long> tipos = new HashMap<>();
+        // Las dos cuentas en una transacción de solo lectura (misma foto en InnoDB): una donación
+        // que el archivado mueve en el medio no queda contada dos veces ni ninguna
+        soloLectura.executeWithoutResult(status -> {
+            for (String tabla : TABLAS) {
+                jdbcTemplate.query(String.format(CONTAR, tabla), rs -> {
+                    EstadoDonacion estado = EstadoDonacion.desde(rs.getString(1));
+                    long cantidad = rs.getLong(4);
+                    if (estado != null) {
+                        estados.merge(estado, cantidad, Long::sum);
+                    }
+                    puntos.merge(rs.getLong(2), cantidad, Long::sum);
+                    tipos.merge(rs.getString(3), cantidad, Long::sum);
+                });
+            }
+        });
+
+        Pasada pasada = new Pasada();
+        corregir(porEstado, estadosAntes, estados, pasada);
+        corregir(porPunto, puntosAntes, puntos, pasada);
+        corregir(porTipo, tiposAntes, tipos, pasada);
+        return pasada;
+    }
+
+    private void sumar(EstadoDonacion estado, long cantidad) {
+        if (estado != null) {
+            porEstado.get(estado).add(cantidad);
+        }
+    }
+
+    private static <K> void corregir(Map<K, LongAdder> contadores, Map<K, Long> antes, Map<K, Long> reales,
+                                     Pasada pasada) {
+        Map<K, Long> despues = leer(contadores);
+        Set<K> claves = new HashSet<>(reales.keySet());
+        claves.addAll(despues.keySet());
+        for (K clave : claves) {
+            long actual = despues.getOrDefault(clave, 0L);
+            if (antes.getOrDefault(clave, 0L) != actual) {
+                pasada.inestables++;
+                continue;
+            }
+            long diferencia = reales.getOrDefault(clave, 0L) - actual;
+            if (diferencia != 0) {
+                contadores.computeIfAbsent(clave, c -> new LongAdder()).add(diferencia);
+                pasada.corregidos++;
+            }
+        }
+    }
+
+    private static <K> Map<K, Long> leer(Map<K, LongAdder> contadores) {
+        Map<K, Long> valores = new HashMap<>();
+        for (Map.Entry<K, LongAdder> entrada : contadores.entrySet()) {
+            valores.put(entrada.getKey(), entrada.getValue().sum());
+        }
+        return valores;
+    }
+
+    // Los puntos y tipos que quedaron en cero no aparecen en la respuesta
+    private static <K extends Comparable<K>> Map<K, Long> sinCeros(Map<K, LongAdder> contadores) {
+        Map<K, Long> valores = new TreeMap<>();
+        for (Map.Entry<K, LongAdder> entrada : contadores.entrySet()) {
+            long cantidad = entrada.getValue().sum();
+            if (cantidad != 0) {
+                valores.put(entrada.getKey(), cantidad);
+            }
+        }
+        return valores;
+    }
+
+    // Resultado de una cuenta contra la base
+    private static class Pasada {
+        int corregidos;
+        int inestables;
+    }
+}
@@ -0,0 +1,75 @@
+package com.donaciones.donacionesbackend.service;
+
+import com.donaciones.donacionesbackend.dto.ResultadoEliminacion;
+import com.donaciones.donacionesbackend.event.PuntoDonacionCambiadoEvent;
+import com.donaciones.donacionesbackend.repository.FavoritoRepository;
+import com.donaciones.donacionesbackend.repository.PuntoDonacionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * borrado físico de puntos, de a uno o de a muchos, con una cantidad fija de consultas:
+ * un SELECT que ya filtra por permisos, un DELETE de favoritos y un DELETE de puntos,
+ * sin importar cuántos favoritos tenga cada punto
+ */
+@Service
+public class EliminacionPuntosService {
+
+    @Autowired
+    private PuntoDonacionRepository puntoDonacionRepository;
+
+    @Autowired
+    private FavoritoRepository favoritoRepository;
+
+    @Autowired
+    private ResumenOrganizacionService resumenOrganizacionService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * elimina los puntos que el usuario puede borrar (usuarioId null = admin) y reporta el resto
+     * los que no se pueden borrar no frenan a los demás
+     */
+    @Transactional
+    public ResultadoEliminacion eliminar(Collection<Long> ids, Long usuarioId) {
+        Set<Long> pedidos = new LinkedHashSet<>(ids);
+        List<Long> eliminables = pedidos.isEmpty()
+            ? List.of()
+            : puntoDonacionRepository.findIdsEliminables(pedidos, usuarioId);
+
+        if (!eliminables.isEmpty()) {
+            resumenOrganizacionService.antesDeEliminar(eliminables);
+            favoritoRepository.deleteByPuntoDonacionIdIn(eliminables);
+            puntoDonacionRepository.deleteByIdIn(eliminables);
+            for (Long id : eliminables) {
+                eventPublisher.publishEvent(PuntoDonacionCambiadoEvent.eliminado(id));
+            }
+        }
+
+        // Solo si algo no se pudo borrar averiguo si es porque no existe o por permisos
+        List<Long> noEncontrados = new ArrayList<>();
+        List<Long> sinPermiso = new ArrayList<>();
+        if (eliminables.size() < pedidos.size()) {
+            Set<Long> restantes = new LinkedHashSet<>(pedidos);
+            eliminables.forEach(restantes::remove);
+            Set<Long> existentes = new HashSet<>(puntoDonacionRepository.findIdsExistentes(restantes));
+            for (Long id : restantes) {
+                (existentes.contains(id) ? sinPermiso : noEncontrados).add(id);
+            }
+        }
+
+        List<Long> eliminados = new ArrayList<>(pedidos);
+        eliminados.retainAll(new HashSet<>(eliminables));
+        return new ResultadoEliminacion(eliminados, noEncontrados, sinPermiso);
+    }
+}
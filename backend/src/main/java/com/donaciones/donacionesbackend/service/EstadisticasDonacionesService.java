@@ -0,0 +1,238 @@
+package com.donaciones.donacionesbackend.service;
+
+import com.donaciones.donacionesbackend.dto.EstadisticasDonaciones;
+import com.donaciones.donacionesbackend.entity.Donacion;
+import com.donaciones.donacionesbackend.entity.EstadoDonacion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * estadísticas de donaciones a partir de totales diarios (tabla donaciones_por_dia)
+ * cada alta o cambio de estado suma o resta en la fila de su (día, punto, tipo, estado)
+ * dentro de la misma transacción, así un rango de un año son unos pocos cientos de filas
+ * por grupo en vez de todas las donaciones del año. Si hace falta se reconstruye desde cero
+ */
+@Service
+public class EstadisticasDonacionesService {
+
+    public enum Agrupacion {
+        DIA,
+
+        MES,
+
+        PUNTO,
+
+        TIPO,
+
+        ESTADO
+    }
+
+    // Upsert: si ya existe la fila del grupo suma, si no la crea (MySQL/MariaDB)
+    private static final String SUMAR = "INSERT INTO donaciones_por_dia " +
+        "(dia, punto_donacion_id, tipo_donacion, estado, cantidad_total, donaciones) VALUES (?, ?, ?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE cantidad_total = cantidad_total + VALUES(cantidad_total), " +
+        "donaciones = donaciones + VALUES(donaciones)";
+
+    // Desde las dos tablas: las donaciones archivadas siguen contando en las estadísticas
+    private static final String RECONSTRUIR = "INSERT INTO donaciones_por_dia " +
+        "(dia, punto_donacion_id, tipo_donacion, estado, cantidad_total, donaciones) " +
+        "SELECT CAST(fecha_donacion AS DATE), punto_donacion_id, tipo_donacion, estado, SUM(cantidad), COUNT(*) " +
+        "FROM (SELECT fecha_donacion, punto_donacion_id, tipo_donacion, estado, cantidad FROM donaciones " +
+        "UNION ALL SELECT fecha_donacion, punto_donacion_id, tipo_donacion, estado, cantidad FROM donaciones_archivo) d " +
+        "WHERE fecha_donacion IS NOT NULL " +
+        "GROUP BY CAST(fecha_donacion AS DATE), punto_donacion_id, tipo_donacion, estado";
+
+    // Columna por la que se agrupa en SQL (MES se agrupa por día y después se junta acá)
+    private static final Map<Agrupacion, String> COLUMNAS = Map.of(
+        Agrupacion.DIA, "dia",
+        Agrupacion.MES, "dia",
+        Agrupacion.PUNTO, "punto_donacion_id",
+        Agrupacion.TIPO, "tipo_donacion",
+        Agrupacion.ESTADO, "estado");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Las transacciones que suman toman la parte de lectura hasta su commit; la reconstrucción toma la de
+    // escritura, así espera a las que están en curso y las nuevas esperan a que termine (justa: no se posterga)
+    private final ReentrantReadWriteLock reconstruccion = new ReentrantReadWriteLock(true);
+
+    /** suma donaciones recién insertadas; se llama dentro de la transacción del INSERT */
+    public void sumarNuevas(Collection<Donacion> donaciones) {
+        Map<Clave, long[]> deltas = new LinkedHashMap<>();
+        for (Donacion donacion : donaciones) {
+            acumular(deltas, Clave.de(donacion, donacion.getEstado()), donacion.getCantidad(), 1);
+        }
+        aplicar(deltas);
+    }
+
+    /**
+     * mueve cada donación del estado que tenía (anteriores: id -> estado) al que tiene ahora
+     * se llama dentro de la transacción que cambia los estados
+     */
+    public void estadosCambiados(Collection<Donacion> donaciones, Map<Long, EstadoDonacion> anteriores) {
+        Map<Clave, long[]> deltas = new LinkedHashMap<>();
+        for (Donacion donacion : donaciones) {
+            EstadoDonacion anterior = anteriores.get(donacion.getId());
+            if (anterior == null || anterior == donacion.getEstado()) {
+                continue;
+            }
+            acumular(deltas, Clave.de(donacion, anterior), -donacion.getCantidad(), -1);
+            acumular(deltas, Clave.de(donacion, donacion.getEstado()), donacion.getCantidad(), 1);
+        }
+        aplicar(deltas);
+    }
+
+    /**
+     * totales del rango [desde, hasta] (días inclusive) agrupados por día, mes, punto, tipo o estado
+     * lee solo donaciones_por_dia; los grupos que quedaron en cero no aparecen
+     */
+    public EstadisticasDonaciones consultar(LocalDate desde, LocalDate hasta, Agrupacion agrupacion) {
+        String columna = COLUMNAS.get(agrupacion);
+        String sql = "SELECT " + columna + ", SUM(cantidad_total), SUM(donaciones) FROM donaciones_por_dia " +
+            "WHERE dia BETWEEN ? AND ? GROUP BY " + columna + " HAVING SUM(donaciones) <> 0 ORDER BY " + columna;
+
+        Map<String, long[]> grupos = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            String clave = agrupacion == Agrupacion.MES
+                ? YearMonth.from(rs.getDate(1).toLocalDate()).toString()
+                : rs.getString(1);
+            long[] total = grupos.computeIfAbsent(clave, c -> new long[2]);
+            total[0] += rs.getLong(2);
+            total[1] += rs.getLong(3);
+        }, Date.valueOf(desde), Date.valueOf(hasta));
+
+        List<EstadisticasDonaciones.Grupo> resultado = new ArrayList<>(grupos.size());
+        long cantidadTotal = 0;
+        long donacionesTotal = 0;
+        for (Map.Entry<String, long[]> grupo : grupos.entrySet()) {
+            resultado.add(new EstadisticasDonaciones.Grupo(grupo.getKey(), grupo.getValue()[0], grupo.getValue()[1]));
+            cantidadTotal += grupo.getValue()[0];
+            donacionesTotal += grupo.getValue()[1];
+        }
+        return new EstadisticasDonaciones(desde, hasta, agrupacion.name().toLowerCase(Locale.ROOT),
+            cantidadTotal, donacionesTotal, resultado);
+    }
+
+    /**
+     * borra los totales y los vuelve a calcular desde las donaciones, todo en una transacción
+     * mientras tanto no entra ningún upsert (el escritor de la ingesta y los cambios de estado esperan):
+     * uno que se colara entre el DELETE y el INSERT ... SELECT lo haría fallar por clave duplicada
+     */
+    public int reconstruir() {
+        reconstruccion.writeLock().lock();
+        try {
+            Integer filas = transactionTemplate.execute(status -> {
+                jdbcTemplate.update("DELETE FROM donaciones_por_dia");
+                return jdbcTemplate.update(RECONSTRUIR);
+            });
+            System.out.println("Totales diarios de donaciones reconstruidos: " + filas + " filas");
+            return filas;
+        } finally {
+            reconstruccion.writeLock().unlock();
+        }
+    }
+
+    // Primera vez con la tabla nueva: si hay donaciones pero no totales, los armo
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        try {
+            Boolean sinTotales = jdbcTemplate.queryForObject(
+                "SELECT NOT EXISTS (SELECT 1 FROM donaciones_por_dia) AND (EXISTS (SELECT 1 FROM donaciones) " +
+                "OR EXISTS (SELECT 1 FROM donaciones_archivo))",
+                Boolean.class);
+            if (Boolean.TRUE.equals(sinTotales)) {
+                reconstruir();
+            }
+        } catch (Exception e) {
+            System.err.println("No se pudieron inicializar los totales diarios de donaciones: " + e.getMessage());
+        }
+    }
+
+    /** "dia", "mes", "punto", "tipo" o "estado" (sin importar mayúsculas); null si no es ninguna */
+    public static Agrupacion agrupacion(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return Agrupacion.valueOf(valor.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void acumular(Map<Clave, long[]> deltas, Clave clave, long cantidad, long donaciones) {
+        if (clave == null) {
+            return;
+        }
+        long[] delta = deltas.computeIfAbsent(clave, c -> new long[2]);
+        delta[0] += cantidad;
+        delta[1] += donaciones;
+    }
+
+    // Un upsert por grupo afectado, todos en un batch
+    private void aplicar(Map<Clave, long[]> deltas) {
+        List<Object[]> filas = new ArrayList<>(deltas.size());
+        for (Map.Entry<Clave, long[]> delta : deltas.entrySet()) {
+            Clave clave = delta.getKey();
+            if (delta.getValue()[0] != 0 || delta.getValue()[1] != 0) {
+                filas.add(new Object[] { Date.valueOf(clave.dia()), clave.puntoDonacionId(), clave.tipoDonacion(),
+                    clave.estado().name(), delta.getValue()[0], delta.getValue()[1] });
+            }
+        }
+        if (filas.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reconstruccion.readLock().lock();
+            try {
+                jdbcTemplate.batchUpdate(SUMAR, filas);
+            } finally {
+                reconstruccion.readLock().unlock();
+            }
+            return;
+        }
+        // Una vez por transacción; se suelta al terminar, en el mismo hilo
+        if (reconstruccion.getReadHoldCount() == 0) {
+            reconstruccion.readLock().lock();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    reconstruccion.readLock().unlock();
+                }
+            });
+        }
+        jdbcTemplate.batchUpdate(SUMAR, filas);
+    }
+
+    private record Clave(LocalDate dia, Long puntoDonacionId, String tipoDonacion, EstadoDonacion estado) {
+        // null si la donación no tiene fecha (no entra en las estadísticas, igual que al reconstruir)
+        static Clave de(Donacion donacion, EstadoDonacion estado) {
+            if (donacion.getFechaDonacion() == null) {
+                return null;
+            }
+            return new Clave(donacion.getFechaDonacion().toLocalDate(), donacion.getPuntoDonacionId(),
+                donacion.getTipoDonacion(), estado);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.donaciones.donacionesbackend.service;
+
+import com.donaciones.donacionesbackend.entity.TipoDonacion;
+import com.donaciones.donacionesbackend.util.EscritorCsv;
+import com.donaciones.donacionesbackend.util.TiposDonacion;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalTime;
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * descarga completa del catálogo público de puntos en GeoJSON o CSV
+ * no paso por entidades: recorro un ResultSet de solo avance (el driver de MySQL lo manda
+ * fila por fila con fetch size Integer.MIN_VALUE) y cada fila se escribe directo en la respuesta,
+ * así la memoria no crece con el tamaño de la tabla y el primer byte sale enseguida
+ */
+@Service
+public class ExportacionPuntosService {
+
+    // Mismas columnas y mismo criterio que el mapa público
+    private static final String CONSULTA = "SELECT id, nombre, direccion, latitud, longitud, tipo_donacion, " +
+        "horario_apertura, horario_cierre, telefono, email FROM puntos_donacion " +
+        "WHERE activo = true AND estado = 'ACTIVO' ORDER BY id";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    // Integer.MIN_VALUE es el modo streaming de MySQL Connector/J (una fila por vez)
+    @Value("${app.exportacion.fetch-size:-2147483648}")
+    private int fetchSize;
+
+    // Cada descarga tiene una conexión ocupada hasta terminar; el pool es chico, así que las limito
+    @Value("${app.exportacion.max-concurrentes:2}")
+    private int maxConcurrentes;
+
+    // Una descarga grande con un cliente lento tarda mucho más que el timeout asíncrono por defecto (30 s)
+    @Value("${app.exportacion.timeout-ms:3600000}")
+    private long timeoutMs;
+
+    // JdbcTemplate propio para no cambiarle el fetch size al resto de la aplicación
+    private JdbcTemplate jdbcTemplate;
+
+    private Semaphore descargas;
+
+    @PostConstruct
+    public void inicializar() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+        descargas = new Semaphore(maxConcurrentes);
+    }
+
+    /**
+     * reserva un lugar para la descarga y devuelve su cuerpo; null si ya hay demasiadas en curso
+     * el lugar se libera al terminar de escribir, o cuando Spring cierra el pedido asíncrono
+     * si la escritura nunca llegó a terminar (el cliente cortó, venció el timeout o falló).
+     * El pedido usa app.exportacion.timeout-ms en vez del timeout asíncrono general
+     */
+    public StreamingResponseBody reservar(NativeWebRequest pedido, StreamingResponseBody escritura) {
+        if (!descargas.tryAcquire()) {
+            return null;
+        }
+        AtomicBoolean liberado = new AtomicBoolean(false);
+        Runnable liberar = () -> {
+            if (liberado.compareAndSet(false, true)) {
+                descargas.release();
+            }
+        };
+        WebAsyncUtils.getAsyncManager(pedido).registerCallableInterceptor(ExportacionPuntosService.class,
+            new CallableProcessingInterceptor() {
+                // Corre antes de startAsync(), que es donde se aplica el timeout
+                @Override
+                public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                    if (request instanceof AsyncWebRequest asincronico) {
+                        asincronico.setTimeout(timeoutMs);
+                    }
+                }
+
+                @Override
+                public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+                    liberar.run();
+                }
+            });
+        return salida -> {
+            try {
+                escritura.writeTo(salida);
+            } finally {
+                liberar.run();
+            }
+        };
+    }
+
+    /** FeatureCollection con un Feature Point por punto; tipoDonacion va como array */
+    public void escribirGeoJson(OutputStream salida) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(salida, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeStringField("type", "FeatureCollection");
+            json.writeArrayFieldStart("features");
+            json.flush(); // el cliente ya empieza a recibir mientras corre la consulta
+
+            recorrer(rs -> {
+                json.writeStartObject();
+                json.writeStringField("type", "Feature");
+                json.writeObjectFieldStart("geometry");
+                json.writeStringField("type", "Point");
+                json.writeArrayFieldStart("coordinates");
+                json.writeNumber(rs.getDouble("longitud")); // GeoJSON va [longitud, latitud]
+                json.writeNumber(rs.getDouble("latitud"));
+                json.writeEndArray();
+                json.writeEndObject();
+                json.writeObjectFieldStart("properties");
+                json.writeNumberField("id", rs.getLong("id"));
+                json.writeStringField("nombre", rs.getString("nombre"));
+                json.writeStringField("direccion", rs.getString("direccion"));
+                json.writeArrayFieldStart("tipoDonacion");
+                for (TipoDonacion tipo : TiposDonacion.parsear(rs.getString("tipo_donacion"))) {
+                    json.writeString(tipo.name().toLowerCase(Locale.ROOT));
+                }
+                json.writeEndArray();
+                json.writeStringField("horarioApertura", hora(rs, "horario_apertura"));
+                json.writeStringField("horarioCierre", hora(rs, "horario_cierre"));
+                json.writeStringField("telefono", rs.getString("telefono"));
+                json.writeStringField("email", rs.getString("email"));
+                json.writeEndObject();
+                json.writeEndObject();
+            });
+
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+    /** CSV con las mismas columnas que acepta /importar (los tipos separados por |) */
+    public void escribirCsv(OutputStream salida) throws IOException {
+        Writer writer = new OutputStreamWriter(salida, StandardCharsets.UTF_8);
+        EscritorCsv.fila(writer, "id", "nombre", "direccion", "latitud", "longitud", "tipoDonacion",
+            "horarioApertura", "horarioCierre", "telefono", "email");
+        writer.flush();
+
+        recorrer(rs -> {
+            StringJoiner tipos = new StringJoiner("|");
+            for (TipoDonacion tipo : TiposDonacion.parsear(rs.getString("tipo_donacion"))) {
+                tipos.add(tipo.name().toLowerCase(Locale.ROOT));
+            }
+            EscritorCsv.fila(writer, rs.getLong("id"), rs.getString("nombre"), rs.getString("direccion"),
+                rs.getDouble("latitud"), rs.getDouble("longitud"), tipos,
+                hora(rs, "horario_apertura"), hora(rs, "horario_cierre"),
+                rs.getString("telefono"), rs.getString("email"));
+        });
+        writer.flush();
+    }
+
+    // Pasa cada fila al escritor sin juntarlas; los IOException del cliente cortan la consulta
+    private void recorrer(EscritorFila escritor) throws IOException {
+        try {
+            jdbcTemplate.query(CONSULTA, rs -> {
+                try {
+                    escritor.escribir(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String hora(ResultSet rs, String columna) throws SQLException {
+        LocalTime hora = rs.getObject(columna, LocalTime.class);
+        return hora != null ? hora.toString() : null;
+    }
+
+    @FunctionalInterface
+    private interface EscritorFila {
+        void escribir(ResultSet rs) throws SQLException, IOException;
+    }
+}
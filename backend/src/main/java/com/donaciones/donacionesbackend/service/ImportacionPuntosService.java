@@ -0,0 +1,422 @@
+package com.donaciones.donacionesbackend.service;
+
+import com.donaciones.donacionesbackend.dto.ResultadoImportacion;
+import com.donaciones.donacionesbackend.entity.EstadoPunto;
+import com.donaciones.donacionesbackend.entity.PuntoDonacion;
+import com.donaciones.donacionesbackend.entity.Rol;
+import com.donaciones.donacionesbackend.entity.TipoDonacion;
+import com.donaciones.donacionesbackend.event.PuntoDonacionCambiadoEvent;
+import com.donaciones.donacionesbackend.util.LectorCsv;
+import com.donaciones.donacionesbackend.util.TiposDonacion;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * importación masiva de puntos desde CSV o GeoJSON (redes municipales con miles de puntos)
+ * leo el archivo como stream, valido fila por fila y voy insertando de a lotes con JDBC batch:
+ * en memoria solo queda el lote actual, así que el tamaño del archivo no importa.
+ * El id sigue siendo AUTO_INCREMENT de MySQL; como el INSERT no pasa por Hibernate,
+ * el batch no se desactiva por IDENTITY y los ids vuelven con getGeneratedKeys
+ */
+@Service
+public class ImportacionPuntosService {
+
+    public enum Formato {
+        CSV,
+
+        GEOJSON
+    }
+
+    // Las columnas que se pueden mapear desde el archivo (mismos nombres que el JSON de crearPunto)
+    private static final List<String> OBLIGATORIOS = List.of("nombre", "direccion", "latitud", "longitud", "tipoDonacion");
+
+    private static final String INSERT = "INSERT INTO puntos_donacion (nombre, direccion, latitud, longitud, " +
+        "tipo_donacion, tipos_mask, horario_apertura, horario_cierre, telefono, email, activo, estado, " +
+        "usuario_creador_id, tipo_creador, fecha_creacion) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ResumenOrganizacionService resumenOrganizacionService;
+
+    // Filas por INSERT batch; cada lote es su propia transacción
+    @Value("${app.importacion.lote:1000}")
+    private int tamanoLote;
+
+    // Cuántos errores de fila se devuelven en la respuesta (el resto solo se cuenta)
+    @Value("${app.importacion.max-errores:500}")
+    private int maxErrores;
+
+    /**
+     * importa todo el contenido; los puntos quedan ACTIVO salvo que los cree una organización,
+     * igual que en crearPunto. Tira IllegalArgumentException si el archivo no tiene el formato esperado
+     */
+    public ResultadoImportacion importar(InputStream contenido, Formato formato,
+                                         Long usuarioCreadorId, Rol tipoCreador) throws IOException {
+        Importacion importacion = new Importacion(usuarioCreadorId, tipoCreador);
+        if (formato == Formato.CSV) {
+            leerCsv(contenido, importacion);
+        } else {
+            leerGeoJson(contenido, importacion);
+        }
+        importacion.cerrarLote();
+        return importacion.resultado();
+    }
+
+    // Primera fila = encabezados (nombres como en el JSON de la API, sin importar mayúsculas)
+    private void leerCsv(InputStream contenido, Importacion importacion) throws IOException {
+        LectorCsv lector = new LectorCsv(new InputStreamReader(contenido, StandardCharsets.UTF_8));
+        List<String> encabezados;
+        try {
+            encabezados = lector.siguienteFila();
+        } catch (LectorCsv.CampoDemasiadoLargoException e) {
+            throw new IllegalArgumentException("encabezados inválidos: " + e.getMessage());
+        }
+        if (encabezados == null) {
+            throw new IllegalArgumentException("el archivo está vacío");
+        }
+        Map<String, Integer> columnas = new HashMap<>();
+        for (int i = 0; i < encabezados.size(); i++) {
+            String nombre = encabezados.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            columnas.put(nombre, i);
+        }
+        for (String obligatorio : OBLIGATORIOS) {
+            if (!columnas.containsKey(obligatorio.toLowerCase(Locale.ROOT))) {
+                throw new IllegalArgumentException("falta la columna " + obligatorio);
+            }
+        }
+
+        List<String> fila;
+        try {
+            while (importacion.sigue() && (fila = lector.siguienteFila()) != null) {
+                if (fila.size() == 1 && fila.get(0).isBlank()) {
+                    continue; // línea vacía
+                }
+                Map<String, String> campos = new HashMap<>();
+                for (Map.Entry<String, Integer> columna : columnas.entrySet()) {
+                    if (columna.getValue() < fila.size()) {
+                        campos.put(columna.getKey(), fila.get(columna.getValue()));
+                    }
+                }
+                importacion.agregar(lector.getLinea(), campos);
+            }
+        } catch (LectorCsv.CampoDemasiadoLargoException e) {
+            // No se sabe dónde termina esa fila: lo anterior se guarda y el resto del archivo no se lee
+            importacion.cortar(e.getLinea(), e.getMessage());
+        }
+    }
+
+    /**
+     * FeatureCollection con geometrías Point; los datos van en properties
+     * recorro el array features con el parser de streaming y solo armo el árbol de un feature a la vez
+     */
+    private void leerGeoJson(InputStream contenido, Importacion importacion) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(contenido)) {
+            if (!avanzarAFeatures(parser)) {
+                throw new IllegalArgumentException("se esperaba un FeatureCollection con features");
+            }
+            long posicion = 0;
+            while (importacion.sigue() && parser.nextToken() == JsonToken.START_OBJECT) {
+                JsonNode feature = parser.readValueAsTree();
+                posicion++;
+                Map<String, String> campos = new HashMap<>();
+                JsonNode propiedades = feature.path("properties");
+                for (Map.Entry<String, JsonNode> propiedad : propiedades.properties()) {
+                    campos.put(propiedad.getKey().toLowerCase(Locale.ROOT), texto(propiedad.getValue()));
+                }
+                // GeoJSON guarda [longitud, latitud]
+                JsonNode geometria = feature.path("geometry");
+                JsonNode coordenadas = geometria.path("coordinates");
+                if ("Point".equals(geometria.path("type").asText()) && coordenadas.size() >= 2) {
+                    campos.put("longitud", coordenadas.get(0).asText());
+                    campos.put("latitud", coordenadas.get(1).asText());
+                } else {
+                    campos.remove("latitud");
+                    campos.remove("longitud");
+                }
+                importacion.agregar(posicion, campos);
+            }
+        }
+    }
+
+    // Deja el parser parado en el START_ARRAY de "features" del objeto raíz
+    private static boolean avanzarAFeatures(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String campo = parser.currentName();
+            JsonToken valor = parser.nextToken();
+            if ("features".equals(campo) && valor == JsonToken.START_ARRAY) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    // Los arrays (ej. tipoDonacion: ["ropa","papel"]) los junto con coma
+    private static String texto(JsonNode valor) {
+        if (valor == null || valor.isNull()) {
+            return null;
+        }
+        if (valor.isArray()) {
+            StringJoiner joiner = new StringJoiner(",");
+            valor.forEach(v -> joiner.add(v.asText()));
+            return joiner.toString();
+        }
+        return valor.asText();
+    }
+
+    /** valida una fila y la convierte en punto; IllegalArgumentException con el motivo si no sirve */
+    private static PuntoDonacion armarPunto(Map<String, String> campos, Long usuarioCreadorId, Rol tipoCreador) {
+        String nombre = obligatorio(campos, "nombre");
+        String direccion = obligatorio(campos, "direccion");
+        double latitud = numero(obligatorio(campos, "latitud"), "latitud", -90, 90);
+        double longitud = numero(obligatorio(campos, "longitud"), "longitud", -180, 180);
+
+        // En el CSV los tipos pueden venir separados por | ; o , ; los guardo como JSON igual que el frontend
+        String tiposTexto = obligatorio(campos, "tipodonacion").replace('|', ',').replace(';', ',');
+        EnumSet<TipoDonacion> tipos = TiposDonacion.parsear(tiposTexto);
+        if (tipos.isEmpty()) {
+            throw new IllegalArgumentException("tipoDonacion sin tipos válidos: " + tiposTexto);
+        }
+        StringJoiner json = new StringJoiner(",", "[", "]");
+        for (TipoDonacion tipo : tipos) {
+            json.add("\"" + tipo.name().toLowerCase(Locale.ROOT) + "\"");
+        }
+
+        PuntoDonacion punto = new PuntoDonacion();
+        punto.setNombre(nombre);
+        punto.setDireccion(direccion);
+        punto.setLatitud(latitud);
+        punto.setLongitud(longitud);
+        punto.setTipoDonacion(json.toString());
+        punto.setHorarioApertura(hora(campos.get("horarioapertura"), "horarioApertura"));
+        punto.setHorarioCierre(hora(campos.get("horariocierre"), "horarioCierre"));
+        punto.setTelefono(opcional(campos.get("telefono")));
+        punto.setEmail(opcional(campos.get("email")));
+        punto.setActivo(true);
+        punto.setUsuarioCreadorId(usuarioCreadorId);
+        punto.setTipoCreador(tipoCreador);
+        punto.setEstado(tipoCreador == Rol.ORGANIZACION ? EstadoPunto.PENDIENTE : EstadoPunto.ACTIVO);
+        punto.setFechaCreacion(LocalDateTime.now());
+        return punto;
+    }
+
+    private static String obligatorio(Map<String, String> campos, String nombre) {
+        String valor = opcional(campos.get(nombre.toLowerCase(Locale.ROOT)));
+        if (valor == null) {
+            throw new IllegalArgumentException("falta " + nombre);
+        }
+        return valor;
+    }
+
+    private static String opcional(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        return valor.trim();
+    }
+
+    private static double numero(String valor, String campo, double minimo, double maximo) {
+        double numero;
+        try {
+            // Acepto coma decimal por si el CSV salió de un Excel en español
+            numero = Double.parseDouble(valor.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(campo + " no es un número: " + valor);
+        }
+        if (Double.isNaN(numero) || numero < minimo || numero > maximo) {
+            throw new IllegalArgumentException(campo + " fuera de rango: " + valor);
+        }
+        return numero;
+    }
+
+    private static LocalTime hora(String valor, String campo) {
+        String texto = opcional(valor);
+        if (texto == null) {
+            return null;
+        }
+        try {
+            return LocalTime.parse(texto.length() == 4 ? "0" + texto : texto); // "8:00" -> "08:00"
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(campo + " no es una hora HH:mm: " + valor);
+        }
+    }
+
+    // Estado de una importación en curso: el lote pendiente y los contadores
+    private class Importacion {
+        private final Long usuarioCreadorId;
+        private final Rol tipoCreador;
+        private final long inicio = System.currentTimeMillis();
+        private final List<PuntoDonacion> lote = new ArrayList<>();
+        private final List<ResultadoImportacion.ErrorFila> errores = new ArrayList<>();
+        private long primeraFilaLote;
+        private long filasLeidas;
+        private long importadas;
+        private long conError;
+        private int lotes;
+        private boolean completo = true;
+
+        Importacion(Long usuarioCreadorId, Rol tipoCreador) {
+            this.usuarioCreadorId = usuarioCreadorId;
+            this.tipoCreador = tipoCreador;
+        }
+
+        boolean sigue() {
+            return completo;
+        }
+
+        void agregar(long fila, Map<String, String> campos) {
+            filasLeidas++;
+            try {
+                PuntoDonacion punto = armarPunto(campos, usuarioCreadorId, tipoCreador);
+                if (lote.isEmpty()) {
+                    primeraFilaLote = fila;
+                }
+                lote.add(punto);
+            } catch (IllegalArgumentException e) {
+                registrarError(fila, e.getMessage());
+            }
+            if (lote.size() >= tamanoLote) {
+                cerrarLote();
+            }
+        }
+
+        // Inserta el lote en su propia transacción y avisa a los índices en memoria después del commit
+        void cerrarLote() {
+            if (lote.isEmpty() || !completo) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    insertar(lote);
+                    resumenOrganizacionService.puntosCreados(lote);
+                    for (PuntoDonacion punto : lote) {
+                        eventPublisher.publishEvent(PuntoDonacionCambiadoEvent.guardado(punto));
+                    }
+                });
+                importadas += lote.size();
+                lotes++;
+                System.out.println("Importación de puntos: lote " + lotes + " guardado, " + importadas + " puntos hasta ahora");
+            } catch (DataAccessException e) {
+                // Un error de la base probablemente se repite: corto acá y aviso desde qué fila no se guardó
+                System.err.println("Error importando puntos: " + e.getMessage());
+                conError += lote.size();
+                anotarError(primeraFilaLote, "no se pudo guardar el lote que empieza en esta fila: "
+                    + e.getMostSpecificCause().getMessage());
+                completo = false;
+            } finally {
+                lote.clear();
+            }
+        }
+
+        // Error que no deja seguir leyendo el archivo: guardo el lote pendiente y corto
+        void cortar(long fila, String error) {
+            cerrarLote();
+            filasLeidas++;
+            registrarError(fila, error);
+            completo = false;
+        }
+
+        private void registrarError(long fila, String error) {
+            conError++;
+            anotarError(fila, error);
+        }
+
+        private void anotarError(long fila, String error) {
+            if (errores.size() < maxErrores) {
+                errores.add(new ResultadoImportacion.ErrorFila(fila, error));
+            }
+        }
+
+        ResultadoImportacion resultado() {
+            return new ResultadoImportacion(filasLeidas, importadas, conError, lotes,
+                System.currentTimeMillis() - inicio, completo, errores, conError > errores.size());
+        }
+    }
+
+    // Un solo INSERT preparado y un batch por lote; los ids generados quedan en cada punto
+    private void insertar(List<PuntoDonacion> puntos) {
+        GeneratedKeyHolder claves = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    PuntoDonacion punto = puntos.get(i);
+                    ps.setString(1, punto.getNombre());
+                    ps.setString(2, punto.getDireccion());
+                    ps.setDouble(3, punto.getLatitud());
+                    ps.setDouble(4, punto.getLongitud());
+                    ps.setString(5, punto.getTipoDonacion());
+                    ps.setInt(6, punto.getTiposMask());
+                    ps.setObject(7, punto.getHorarioApertura(), Types.TIME);
+                    ps.setObject(8, punto.getHorarioCierre(), Types.TIME);
+                    ps.setString(9, punto.getTelefono());
+                    ps.setString(10, punto.getEmail());
+                    ps.setBoolean(11, punto.getActivo());
+                    ps.setString(12, punto.getEstado().name());
+                    ps.setObject(13, punto.getUsuarioCreadorId(), Types.BIGINT);
+                    ps.setString(14, punto.getTipoCreador() != null ? punto.getTipoCreador().name() : null);
+                    ps.setObject(15, punto.getFechaCreacion(), Types.TIMESTAMP);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return puntos.size();
+                }
+            }, claves);
+
+        // Como DataAccessException: cerrarLote revierte el lote y lo informa como error en vez de un 500
+        List<Map<String, Object>> ids = claves.getKeyList();
+        if (ids.size() != puntos.size()) {
+            throw new DataRetrievalFailureException("la base devolvió " + ids.size() + " ids para " + puntos.size() + " puntos");
+        }
+        for (int i = 0; i < puntos.size(); i++) {
+            Object id = ids.get(i).values().iterator().next();
+            puntos.get(i).setId(((Number) id).longValue());
+        }
+    }
+}
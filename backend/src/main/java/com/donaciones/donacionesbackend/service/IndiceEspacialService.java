@@ -0,0 +1,364 @@
+package com.donaciones.donacionesbackend.service;
+
+import com.donaciones.donacionesbackend.dto.PuntoConDistancia;
+import com.donaciones.donacionesbackend.entity.EstadoPunto;
+import com.donaciones.donacionesbackend.entity.PuntoDonacion;
+import com.donaciones.donacionesbackend.event.PuntoDonacionCambiadoEvent;
+import com.donaciones.donacionesbackend.repository.PuntoDonacionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * índice espacial en memoria de los puntos activos y aprobados
+ * divido el mapa en una grilla uniforme de lat/lng y guardo cada punto en su celda,
+ * así la búsqueda de cercanos solo calcula Haversine para las celdas que tocan el radio
+ * y no para toda la tabla. Se mantiene al día escuchando PuntoDonacionCambiadoEvent
+ */
+@Service
+public class IndiceEspacialService {
+
+    private static final double RADIO_TIERRA_KM = 6371.0;
+
+    // km que mide un grado de latitud (y de longitud sobre el ecuador)
+    private static final double KM_POR_GRADO = Math.PI * RADIO_TIERRA_KM / 180.0;
+
+    @Autowired
+    private PuntoDonacionRepository puntoDonacionRepository;
+
+    // Tamaño de cada celda en grados; 0.05 son unos 5,5 km de lado
+    @Value("${app.indice-espacial.celda-grados:0.05}")
+    private double celdaGrados;
+
+    // celda -> (id del punto -> punto)
+    private final Map<Long, Map<Long, PuntoDonacion>> celdas = new ConcurrentHashMap<>();
+
+    // id del punto -> celda donde está guardado, para poder moverlo o sacarlo
+    private final Map<Long, Long> celdaPorPunto = new ConcurrentHashMap<>();
+
+    private volatile boolean cargado = false;
+
+    // Sube con cada cambio aplicado; lo usan los cachés que dependen del índice
+    private final AtomicLong version = new AtomicLong();
+
+    /** cargo la grilla al arrancar; si la BD todavía no responde reintento en la primera búsqueda */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        asegurarCargado();
+    }
+
+    /**
+     * puntos activos y aprobados a menos de radioKm, ordenados del más cercano al más lejano
+     * lo usa el mapa del donante a través de /puntos-donacion/cercanos
+     */
+    public List<PuntoDonacion> buscarCercanos(double latitud, double longitud, double radioKm) {
+        if (!asegurarCargado()) {
+            // Sin índice (BD caída al arrancar): uso la consulta original y ordeno acá
+            List<PuntoDonacion> puntos = new ArrayList<>(
+                puntoDonacionRepository.findPuntosCercanos(latitud, longitud, radioKm));
+            puntos.sort(Comparator.comparingDouble(
+                p -> distanciaKm(latitud, longitud, p.getLatitud(), p.getLongitud())));
+            return puntos;
+        }
+
+        double deltaLat = radioKm / KM_POR_GRADO;
+        double cosLat = Math.max(Math.cos(Math.toRadians(latitud)), 0.01);
+        double deltaLng = Math.min(radioKm / (KM_POR_GRADO * cosLat), 180.0);
+
+        List<PuntoConDistancia> candidatos = new ArrayList<>();
+        for (Map<Long, PuntoDonacion> celda : celdasEnRectangulo(
+                latitud - deltaLat, longitud - deltaLng, latitud + deltaLat, longitud + deltaLng)) {
+            for (PuntoDonacion punto : celda.values()) {
+                double distancia = distanciaKm(latitud, longitud, punto.getLatitud(), punto.getLongitud());
+                if (distancia <= radioKm) {
+                    candidatos.add(new PuntoConDistancia(punto, distancia));
+                }
+            }
+        }
+
+        candidatos.sort(Comparator.comparingDouble(PuntoConDistancia::distanciaKm));
+        List<PuntoDonacion> resultado = new ArrayList<>(candidatos.size());
+        for (PuntoConDistancia candidato : candidatos) {
+            resultado.add(candidato.punto());
+        }
+        return resultado;
+    }
+
+    /**
+     * los k puntos más cercanos que cumplen el filtro, sin pasar de radioMaxKm
+     * recorro la grilla en anillos desde la celda del donante y corto apenas el anillo
+     * siguiente ya no puede tener nada más cerca que el k-ésimo encontrado; el filtro
+     * (tipo, abierto ahora) se evalúa mientras recorro, así los descartados no ocupan lugar
+     */
+    public List<PuntoConDistancia> buscarMasCercanos(double latitud, double longitud, int k,
+                                                     Predicate<PuntoDonacion> filtro, double radioMaxKm) {
+        // Max-heap por distancia: en la cima queda el peor de los k mejores
+        PriorityQueue<PuntoConDistancia> mejores = new PriorityQueue<>(
+            Comparator.comparingDouble(PuntoConDistancia::distanciaKm).reversed());
+
+        if (!asegurarCargado()) {
+            for (PuntoDonacion punto : puntoDonacionRepository.findByActivoTrueAndEstado(EstadoPunto.ACTIVO)) {
+                if (esVisible(punto)) {
+                    considerar(punto, latitud, longitud, k, filtro, radioMaxKm, mejores);
+                }
+            }
+            return ordenar(mejores);
+        }
+
+        int filaCentro = indice(latitud);
+        int colCentro = indice(longitud);
+        // Tope de anillos: los que entran en radioMaxKm medido en longitud a la latitud más extrema alcanzable
+        double latitudExtrema = Math.min(89.9, Math.abs(latitud) + radioMaxKm / KM_POR_GRADO);
+        double celdaKmMinima = celdaGrados * KM_POR_GRADO * Math.cos(Math.toRadians(latitudExtrema));
+        int anillosMaximos = (int) Math.min(Math.ceil(180.0 / celdaGrados), Math.ceil(radioMaxKm / celdaKmMinima) + 1);
+        for (int r = 0; r <= anillosMaximos; r++) {
+            double cota = cotaInferiorAnillo(latitud, r);
+            if (cota > radioMaxKm) {
+                break;
+            }
+            if (mejores.size() == k && cota > mejores.peek().distanciaKm()) {
+                break; // ningún punto de este anillo o más afuera puede mejorar el resultado
+            }
+            for (int fila = filaCentro - r; fila <= filaCentro + r; fila++) {
+                boolean borde = fila == filaCentro - r || fila == filaCentro + r;
+                // En las filas del medio solo miro las dos columnas del borde del anillo
+                int paso = borde || r == 0 ? 1 : 2 * r;
+                for (int col = colCentro - r; col <= colCentro + r; col += paso) {
+                    Map<Long, PuntoDonacion> celda = celdas.get(clave(fila, col));
+                    if (celda == null) {
+                        continue;
+                    }
+                    for (PuntoDonacion punto : celda.values()) {
+                        considerar(punto, latitud, longitud, k, filtro, radioMaxKm, mejores);
+                    }
+                }
+            }
+        }
+        return ordenar(mejores);
+    }
+
+    /**
+     * puntos activos y aprobados dentro de un rectángulo lat/lng (sin orden)
+     * lo uso para responder la vista del mapa en /puntos-donacion/viewport
+     */
+    public List<PuntoDonacion> buscarEnRectangulo(double minLat, double minLng, double maxLat, double maxLng) {
+        List<PuntoDonacion> resultado = new ArrayList<>();
+        if (!asegurarCargado()) {
+            // Sin índice filtro la lista completa desde la BD
+            for (PuntoDonacion punto : puntoDonacionRepository.findByActivoTrueAndEstado(EstadoPunto.ACTIVO)) {
+                if (esVisible(punto) && dentroDe(punto, minLat, minLng, maxLat, maxLng)) {
+                    resultado.add(punto);
+                }
+            }
+            return resultado;
+        }
+        for (Map<Long, PuntoDonacion> celda : celdasEnRectangulo(minLat, minLng, maxLat, maxLng)) {
+            for (PuntoDonacion punto : celda.values()) {
+                if (dentroDe(punto, minLat, minLng, maxLat, maxLng)) {
+                    resultado.add(punto);
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /** todos los puntos indexados, para armar agregados sobre el mapa completo */
+    public List<PuntoDonacion> todosLosPuntos() {
+        if (!asegurarCargado()) {
+            return buscarEnRectangulo(-90, -180, 90, 180);
+        }
+        List<PuntoDonacion> resultado = new ArrayList<>(celdaPorPunto.size());
+        for (Map<Long, PuntoDonacion> celda : celdas.values()) {
+            resultado.addAll(celda.values());
+        }
+        return resultado;
+    }
+
+    /** cambia cada vez que el contenido del índice cambia */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * mantiene la grilla sincronizada con lo que hace el controlador
+     * corre después del commit para no indexar cambios que terminaron en rollback
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPuntoCambiado(PuntoDonacionCambiadoEvent evento) {
+        // Dentro del monitor: si la carga está en curso espero a que termine y aplico el cambio encima
+        // (quitar y volver a agregar no hace daño si la carga ya lo había leído)
+        synchronized (this) {
+            if (!cargado) {
+                return; // cuando se cargue va a leer el estado actual desde la BD
+            }
+            quitar(evento.puntoId());
+            if (evento.tipo() == PuntoDonacionCambiadoEvent.Tipo.GUARDADO && esVisible(evento.punto())) {
+                agregar(evento.punto());
+            }
+            version.incrementAndGet();
+        }
+    }
+
+    /** distancia en km entre dos coordenadas con la fórmula de Haversine */
+    public static double distanciaKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                 + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                 * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * RADIO_TIERRA_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private static void considerar(PuntoDonacion punto, double latitud, double longitud, int k,
+                                   Predicate<PuntoDonacion> filtro, double radioMaxKm,
+                                   PriorityQueue<PuntoConDistancia> mejores) {
+        if (!filtro.test(punto)) {
+            return;
+        }
+        double distancia = distanciaKm(latitud, longitud, punto.getLatitud(), punto.getLongitud());
+        if (distancia > radioMaxKm) {
+            return;
+        }
+        if (mejores.size() < k) {
+            mejores.add(new PuntoConDistancia(punto, distancia));
+        } else if (distancia < mejores.peek().distanciaKm()) {
+            mejores.poll();
+            mejores.add(new PuntoConDistancia(punto, distancia));
+        }
+    }
+
+    private static List<PuntoConDistancia> ordenar(PriorityQueue<PuntoConDistancia> mejores) {
+        List<PuntoConDistancia> resultado = new ArrayList<>(mejores);
+        resultado.sort(Comparator.comparingDouble(PuntoConDistancia::distanciaKm));
+        return resultado;
+    }
+
+    /**
+     * distancia mínima posible entre el donante y cualquier punto del anillo r
+     * hay al menos r-1 celdas completas en el medio; para el ancho en longitud uso el coseno
+     * de la latitud más alejada del ecuador que alcanza el anillo, así la cota nunca se pasa
+     */
+    private double cotaInferiorAnillo(double latitud, int r) {
+        if (r <= 1) {
+            return 0;
+        }
+        double latitudExtrema = Math.min(90.0, Math.abs(latitud) + (r + 1) * celdaGrados);
+        double cosMinimo = Math.cos(Math.toRadians(latitudExtrema));
+        return 0.999 * (r - 1) * celdaGrados * KM_POR_GRADO * cosMinimo;
+    }
+
+    // Carga la grilla desde la BD una sola vez; devuelve false si todavía no se pudo
+    private boolean asegurarCargado() {
+        if (cargado) {
+            return true;
+        }
+        synchronized (this) {
+            if (cargado) {
+                return true;
+            }
+            try {
+                List<PuntoDonacion> puntos = puntoDonacionRepository.findByActivoTrueAndEstado(EstadoPunto.ACTIVO);
+                celdas.clear();
+                celdaPorPunto.clear();
+                for (PuntoDonacion punto : puntos) {
+                    if (esVisible(punto)) {
+                        agregar(punto);
+                    }
+                }
+                version.incrementAndGet();
+                cargado = true;
+                System.out.println("Índice espacial cargado con " + celdaPorPunto.size() + " puntos");
+            } catch (Exception e) {
+                System.err.println("No se pudo cargar el índice espacial: " + e.getMessage());
+            }
+            return cargado;
+        }
+    }
+
+    // Devuelve las celdas no vacías que se superponen con el rectángulo
+    private List<Map<Long, PuntoDonacion>> celdasEnRectangulo(double minLat, double minLng, double maxLat, double maxLng) {
+        int filaMin = indice(minLat);
+        int filaMax = indice(maxLat);
+        int colMin = indice(minLng);
+        int colMax = indice(maxLng);
+
+        List<Map<Long, PuntoDonacion>> resultado = new ArrayList<>();
+        long celdasRectangulo = (long) (filaMax - filaMin + 1) * (colMax - colMin + 1);
+        if (celdasRectangulo > celdas.size()) {
+            // Radio muy grande: es más barato recorrer solo las celdas ocupadas
+            for (Map.Entry<Long, Map<Long, PuntoDonacion>> entrada : celdas.entrySet()) {
+                int fila = (int) (entrada.getKey() >> 32);
+                int col = (int) entrada.getKey().longValue();
+                if (fila >= filaMin && fila <= filaMax && col >= colMin && col <= colMax) {
+                    resultado.add(entrada.getValue());
+                }
+            }
+            return resultado;
+        }
+
+        for (int fila = filaMin; fila <= filaMax; fila++) {
+            for (int col = colMin; col <= colMax; col++) {
+                Map<Long, PuntoDonacion> celda = celdas.get(clave(fila, col));
+                if (celda != null) {
+                    resultado.add(celda);
+                }
+            }
+        }
+        return resultado;
+    }
+
+    private void agregar(PuntoDonacion punto) {
+        long clave = clave(indice(punto.getLatitud()), indice(punto.getLongitud()));
+        celdas.computeIfAbsent(clave, k -> new ConcurrentHashMap<>()).put(punto.getId(), punto);
+        celdaPorPunto.put(punto.getId(), clave);
+    }
+
+    private void quitar(Long puntoId) {
+        Long clave = celdaPorPunto.remove(puntoId);
+        if (clave == null) {
+            return;
+        }
+        Map<Long, PuntoDonacion> celda = celdas.get(clave);
+        if (celda != null) {
+            celda.remove(puntoId);
+            if (celda.isEmpty()) {
+                celdas.remove(clave);
+            }
+        }
+    }
+
+    // Solo indexo lo que se ve en el mapa público
+    private boolean esVisible(PuntoDonacion punto) {
+        return punto != null
+            && punto.getId() != null
+            && punto.getLatitud() != null
+            && punto.getLongitud() != null
+            && Boolean.TRUE.equals(punto.getActivo())
+            && punto.getEstado() == EstadoPunto.ACTIVO;
+    }
+
+    private static boolean dentroDe(PuntoDonacion punto, double minLat, double minLng, double maxLat, double maxLng) {
+        return punto.getLatitud() >= minLat && punto.getLatitud() <= maxLat
+            && punto.getLongitud() >= minLng && punto.getLongitud() <= maxLng;
+    }
+
+    private int indice(double grados) {
+        return (int) Math.floor(grados / celdaGrados);
+    }
+
+    private static long clave(int fila, int col) {
+        return ((long) fila << 32) | (col & 0xffffffffL);
+    }
+}
@@ -0,0 +1,273 @@
+package com.donaciones.donacionesbackend.service;
+
+import com.donaciones.donacionesbackend.dto.DonacionRequest;
+import com.donaciones.donacionesbackend.entity.Donacion;
+import com.donaciones.donacionesbackend.entity.EstadoDonacion;
+import com.donaciones.donacionesbackend.event.DonacionesCambiadasEvent;
+import com.donaciones.donacionesbackend.repository.PuntoDonacionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * registro de donaciones con escritura diferida (write-behind)
+ * POST /donaciones solo valida y encola; un hilo escritor junta lo encolado y lo inserta
+ * de a lotes con JDBC batch, una transacción por lote y no por donación.
+ * El cliente recibe la respuesta recién cuando su lote hizo commit (el recibo es durable);
+ * si la cola está llena se rechaza enseguida para que reintente (429)
+ */
+@Service
+public class IngestaDonacionesService {
+
+    // Estado con el que entra toda donación registrada por un punto
+    public static final EstadoDonacion ESTADO_INICIAL = EstadoDonacion.PENDIENTE;
+
+    private static final String INSERT = "INSERT INTO donaciones (punto_donacion_id, donante_id, tipo_donacion, " +
+        "cantidad, descripcion, estado, fecha_donacion, observaciones, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PuntoDonacionRepository puntoDonacionRepository;
+
+    @Autowired
+    private EstadisticasDonacionesService estadisticasDonacionesService;
+
+    // Aviso a los contadores en memoria (se aplica después del commit del lote)
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Donaciones esperando ser escritas; si se llena, POST /donaciones responde 429
+    @Value("${app.donaciones.cola:5000}")
+    private int capacidadCola;
+
+    // Máximo de donaciones por INSERT batch
+    @Value("${app.donaciones.lote:500}")
+    private int tamanoLote;
+
+    // Cuánto espera el escritor a que se junten más donaciones antes de escribir un lote incompleto
+    @Value("${app.donaciones.espera-ms:50}")
+    private long esperaMs;
+
+    private BlockingQueue<Pendiente> cola;
+
+    private volatile Thread escritor;
+
+    private volatile boolean aceptando;
+
+    @PostConstruct
+    public void iniciar() {
+        cola = new ArrayBlockingQueue<>(capacidadCola);
+        aceptando = true;
+        arrancarEscritor();
+    }
+
+    /**
+     * deja la donación en la cola; el future se completa con la donación ya guardada (con id)
+     * o falla si no se pudo guardar. Devuelve null si la cola está llena
+     */
+    public CompletableFuture<Donacion> encolar(DonacionRequest pedido) {
+        if (!aceptando) {
+            return null;
+        }
+        Pendiente pendiente = new Pendiente(armar(pedido), new CompletableFuture<>());
+        if (!cola.offer(pendiente)) {
+            return null;
+        }
+        // Si se empezó a apagar entre el chequeo y el offer, el escritor puede haber terminado ya:
+        // si la saco yo no la tiene nadie; si no, la tomó el escritor o apagar() y la van a completar
+        if (!aceptando && cola.remove(pendiente)) {
+            return null;
+        }
+        return pendiente.recibo();
+    }
+
+    /** cuántas donaciones esperan ser escritas */
+    public int enCola() {
+        return cola.size();
+    }
+
+    // Al apagar dejo de aceptar y el escritor vacía lo que quedó antes de terminar;
+    // lo que no llegó a escribir en ese tiempo se falla para que ningún cliente quede esperando
+    @PreDestroy
+    public void apagar() throws InterruptedException {
+        aceptando = false;
+        escritor.join(TimeUnit.SECONDS.toMillis(30));
+        List<Pendiente> sinEscribir = new ArrayList<>();
+        cola.drainTo(sinEscribir);
+        if (!sinEscribir.isEmpty()) {
+            System.err.println("Se apaga el servidor con " + sinEscribir.size() + " donaciones sin guardar");
+            fallar(sinEscribir, new IllegalStateException("El servidor se está apagando, reintentar"));
+        }
+    }
+
+    // Si un Error (no una Exception) termina el hilo, arranca otro: sin escritor la cola se llena y todo POST es 429
+    private void arrancarEscritor() {
+        Thread hilo = new Thread(this::escribir, "donaciones-escritor");
+        hilo.setDaemon(true);
+        hilo.setUncaughtExceptionHandler((terminado, error) -> {
+            System.err.println("El escritor de donaciones terminó por un error, se reinicia: " + error);
+            arrancarEscritor();
+        });
+        escritor = hilo;
+        hilo.start();
+    }
+
+    private static Donacion armar(DonacionRequest pedido) {
+        Donacion donacion = new Donacion(pedido.puntoDonacionId(), pedido.tipoDonacion().trim(), pedido.cantidad(),
+            pedido.descripcion(), ESTADO_INICIAL);
+        donacion.setDonanteId(pedido.donanteId());
+        donacion.setObservaciones(pedido.observaciones());
+        donacion.setVersion(0L);
+        return donacion;
+    }
+
+    private void escribir() {
+        List<Pendiente> lote = new ArrayList<>(tamanoLote);
+        while (aceptando || !cola.isEmpty()) {
+            try {
+                Pendiente primero = cola.poll(500, TimeUnit.MILLISECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                lote.add(primero);
+                juntarLote(lote);
+                guardar(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                // No dejo que un error inesperado mate al escritor
+                System.err.println("Error en el escritor de donaciones: " + e.getMessage());
+                fallar(lote, e);
+            } catch (Error e) {
+                // El lote en curso falla y el hilo termina; arrancarEscritor() lo reemplaza
+                fallar(lote, e);
+                throw e;
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    // Con mucha carga el lote se llena enseguida; con poca, espero como mucho esperaMs
+    private void juntarLote(List<Pendiente> lote) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(esperaMs);
+        while (lote.size() < tamanoLote) {
+            cola.drainTo(lote, tamanoLote - lote.size());
+            long resta = limite - System.nanoTime();
+            if (lote.size() >= tamanoLote || resta <= 0) {
+                return;
+            }
+            Pendiente otra = cola.poll(resta, TimeUnit.NANOSECONDS);
+            if (otra == null) {
+                return;
+            }
+            lote.add(otra);
+        }
+    }
+
+    // Un SELECT para validar los puntos del lote, un INSERT batch y los totales diarios; los recibos salen después del commit
+    private void guardar(List<Pendiente> lote) {
+        List<Pendiente> validas = new ArrayList<>(lote.size());
+        List<Pendiente> sinPunto = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<Long> puntoIds = new HashSet<>();
+                for (Pendiente pendiente : lote) {
+                    puntoIds.add(pendiente.donacion().getPuntoDonacionId());
+                }
+                Set<Long> existentes = new HashSet<>(puntoDonacionRepository.findIdsExistentes(puntoIds));
+                for (Pendiente pendiente : lote) {
+                    (existentes.contains(pendiente.donacion().getPuntoDonacionId()) ? validas : sinPunto).add(pendiente);
+                }
+                if (!validas.isEmpty()) {
+                    insertar(validas);
+                    List<Donacion> donaciones = validas.stream().map(Pendiente::donacion).toList();
+                    estadisticasDonacionesService.sumarNuevas(donaciones);
+                    eventPublisher.publishEvent(DonacionesCambiadasEvent.registradas(donaciones));
+                }
+            });
+        } catch (Exception e) {
+            System.err.println("Error guardando un lote de " + lote.size() + " donaciones: " + e.getMessage());
+            fallar(lote, e);
+            return;
+        }
+        for (Pendiente pendiente : validas) {
+            pendiente.recibo().complete(pendiente.donacion());
+        }
+        for (Pendiente pendiente : sinPunto) {
+            pendiente.recibo().completeExceptionally(new IllegalArgumentException(
+                "El punto de donación " + pendiente.donacion().getPuntoDonacionId() + " no existe"));
+        }
+    }
+
+    private static void fallar(List<Pendiente> lote, Throwable error) {
+        for (Pendiente pendiente : lote) {
+            pendiente.recibo().completeExceptionally(error);
+        }
+    }
+
+    // Mismo esquema que la importación de puntos: un INSERT preparado y los ids generados a cada donación
+    private void insertar(List<Pendiente> pendientes) {
+        GeneratedKeyHolder claves = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Donacion donacion = pendientes.get(i).donacion();
+                    ps.setLong(1, donacion.getPuntoDonacionId());
+                    ps.setObject(2, donacion.getDonanteId(), Types.BIGINT);
+                    ps.setString(3, donacion.getTipoDonacion());
+                    ps.setInt(4, donacion.getCantidad());
+                    ps.setString(5, donacion.getDescripcion());
+                    ps.setString(6, donacion.getEstado().name());
+                    ps.setObject(7, donacion.getFechaDonacion(), Types.TIMESTAMP);
+                    ps.setString(8, donacion.getObservaciones());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return pendientes.size();
+                }
+            }, claves);
+
+        List<Map<String, Object>> ids = claves.getKeyList();
+        if (ids.size() != pendientes.size()) {
+            throw new DataRetrievalFailureException("la base devolvió " + ids.size() + " ids para " + pendientes.size() + " donaciones");
+        }
+        for (int i = 0; i < pendientes.size(); i++) {
+            Object id = ids.get(i).values().iterator().next();
+            pendientes.get(i).donacion().setId(((Number) id).longValue());
+        }
+    }
+
+    // Una donación encolada y el recibo que espera el cliente
+    private record Pendiente(Donacion donacion, CompletableFuture<Donacion> recibo) {}
+}
@@ -0,0 +1,61 @@
+package com.donaciones.donacionesbackend.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * completa las fechas nulas de las columnas que se usan como clave de los cursores y las pasa a NOT NULL
+ * con un NULL en la clave, el WHERE (fecha, id) > (NULL, ...) de la página siguiente no devuelve nada
+ * y se pierde el resto del listado. ddl-auto=update crea la columna NOT NULL en una base nueva
+ * pero no cambia una que ya existe; eso lo hace este servicio al arrancar (una sola vez)
+ */
+@Service
+public class MigracionClavesCursorService {
+
+    private static final String COLUMNA = "SELECT COLUMN_TYPE, IS_NULLABLE FROM information_schema.COLUMNS " +
+        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?";
+
+    // Columnas de fecha que van en un cursor
+    private static final List<Clave> CLAVES = List.of(
+        new Clave("puntos_donacion", "fecha_creacion"),
+        new Clave("donaciones", "fecha_donacion"),
+        new Clave("donaciones_archivo", "fecha_donacion")
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void migrar() {
+        for (Clave clave : CLAVES) {
+            migrar(clave.tabla(), clave.columna());
+        }
+    }
+
+    private void migrar(String tabla, String columna) {
+        try {
+            List<Map<String, Object>> filas = jdbcTemplate.queryForList(COLUMNA, tabla, columna);
+            if (filas.isEmpty() || "NO".equals(filas.get(0).get("IS_NULLABLE"))) {
+                return;
+            }
+            // Las que no tienen fecha son las más viejas: quedan al principio, con la fecha más vieja que haya
+            // (entre ellas desempata el id)
+            Object minima = jdbcTemplate.queryForObject("SELECT MIN(" + columna + ") FROM " + tabla, Object.class);
+            int completadas = jdbcTemplate.update("UPDATE " + tabla + " SET " + columna + " = COALESCE(?, NOW(6)) " +
+                "WHERE " + columna + " IS NULL", minima);
+
+            String tipo = (String) filas.get(0).get("COLUMN_TYPE");
+            jdbcTemplate.execute("ALTER TABLE " + tabla + " MODIFY " + columna + " " + tipo + " NOT NULL");
+            System.out.println("Columna " + tabla + "." + columna + " pasada a NOT NULL (" + completadas + " filas sin fecha completadas)");
+        } catch (Exception e) {
+            System.err.println("No se pudo pasar " + tabla + "." + columna + " a NOT NULL: " + e.getMessage());
+        }
+    }
+
+    private record Clave(String tabla, String columna) {}
+}
@@ -0,0 +1,77 @@
+package com.donaciones.donacionesbackend.service;
+
+import com.donaciones.donacionesbackend.entity.EstadoDonacion;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * pasa donaciones.estado de VARCHAR(255) (cuando era un String libre) a ENUM con los valores de EstadoDonacion
+ * ddl-auto=update crea la columna bien en una base nueva pero no cambia el tipo de una que ya existe,
+ * ni agrega valores al ENUM si se suma un estado; eso lo hace este servicio al arrancar.
+ * Antes normaliza los textos viejos ("pendiente ", "Entregada") y si queda alguno que no es un estado
+ * conocido no toca nada y lo avisa, para no perder datos en el ALTER.
+ * Lo mismo con donaciones_archivo, que tiene que aceptar los mismos estados
+ */
+@Service
+public class MigracionEstadoDonacionesService {
+
+    private static final String TIPO_COLUMNA = "SELECT COLUMN_TYPE FROM information_schema.COLUMNS " +
+        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = 'estado'";
+
+    private static final List<String> TABLAS = List.of("donaciones", "donaciones_archivo");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Corre al crear el bean: antes de que el servidor reciba pedidos y de los listeners de ApplicationReadyEvent
+    @PostConstruct
+    public void migrar() {
+        for (String tabla : TABLAS) {
+            migrar(tabla);
+        }
+    }
+
+    private void migrar(String tabla) {
+        try {
+            List<String> tipos = jdbcTemplate.queryForList(TIPO_COLUMNA, String.class, tabla);
+            String esperado = tipoEsperado();
+            if (tipos.isEmpty() || tipos.get(0).equalsIgnoreCase(esperado)) {
+                return;
+            }
+
+            String valores = Arrays.stream(EstadoDonacion.values())
+                .map(estado -> "'" + estado.name() + "'")
+                .collect(Collectors.joining(", "));
+            // Con collation *_ci "pendiente" = "PENDIENTE", así que no se puede filtrar por WHERE: va a toda la tabla
+            if (!tipos.get(0).toLowerCase(Locale.ROOT).startsWith("enum")) {
+                jdbcTemplate.update("UPDATE " + tabla + " SET estado = UPPER(TRIM(estado))");
+            }
+            List<String> desconocidos = jdbcTemplate.queryForList(
+                "SELECT DISTINCT estado FROM " + tabla + " WHERE estado NOT IN (" + valores + ")", String.class);
+            if (!desconocidos.isEmpty()) {
+                System.err.println("No se migra " + tabla + ".estado a ENUM, hay estados desconocidos: " + desconocidos);
+                return;
+            }
+
+            // En MySQL esto reescribe la tabla (una sola vez); los INSERT esperan a que termine
+            jdbcTemplate.execute("ALTER TABLE " + tabla + " MODIFY estado " + esperado + " NOT NULL");
+            System.out.println("Columna " + tabla + ".estado migrada a " + esperado);
+        } catch (Exception e) {
+            System.err.println("No se pudo migrar " + tabla + ".estado a ENUM: " + e.getMessage());
+        }
+    }
+
+    // enum('PENDIENTE','VERIFICADA',...) tal como lo informa information_schema
+    private static String tipoEsperado() {
+        return Arrays.stream(EstadoDonacion.values())
+            .map(estado -> "'" + estado.name() + "'")
+            .collect(Collectors.joining(",", "enum(", ")"));
+    }
+}
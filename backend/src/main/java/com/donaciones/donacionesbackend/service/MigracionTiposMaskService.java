@@ -0,0 +1,49 @@
+package com.donaciones.donacionesbackend.service;
+
+import com.donaciones.donacionesbackend.util.TiposDonacion;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * completa puntos_donacion.tipos_mask de los puntos que se crearon antes de que existiera la columna
+ * los filtros /tipo/{tipo} y /tipo?tipos= solo miran tipos_mask, así que un punto con NULL no sale en ninguno.
+ * La máscara se calcula con TiposDonacion.mascara, el mismo parser que usa la entidad al guardar,
+ * y no con LIKE en SQL (que con collation *_ci o tildes puede no coincidir). Corre al arrancar;
+ * cuando ya no quedan NULL no hace nada
+ */
+@Service
+public class MigracionTiposMaskService {
+
+    private static final String SIN_MASCARA = "SELECT id, tipo_donacion FROM puntos_donacion WHERE tipos_mask IS NULL";
+
+    // El IS NULL evita pisar la máscara de un punto que se editó mientras tanto
+    private static final String COMPLETAR = "UPDATE puntos_donacion SET tipos_mask = ? WHERE id = ? AND tipos_mask IS NULL";
+
+    private static final int LOTE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Corre al crear el bean: antes de que se carguen los índices en memoria y de recibir pedidos
+    @PostConstruct
+    public void migrar() {
+        try {
+            List<Object[]> valores = jdbcTemplate.query(SIN_MASCARA, (rs, numero) ->
+                new Object[] {TiposDonacion.mascara(rs.getString("tipo_donacion")), rs.getLong("id")});
+            if (valores.isEmpty()) {
+                return;
+            }
+            for (int desde = 0; desde < valores.size(); desde += LOTE) {
+                jdbcTemplate.batchUpdate(COMPLETAR, new ArrayList<>(valores.subList(desde, Math.min(desde + LOTE, valores.size()))));
+            }
+            System.out.println("tipos_mask completado en " + valores.size() + " puntos de donación");
+        } catch (Exception e) {
+            System.err.println("No se pudo completar puntos_donacion.tipos_mask: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.donaciones.donacionesbackend.service;
+
+import com.donaciones.donacionesbackend.dto.ItemModeracion;
+import com.donaciones.donacionesbackend.dto.ResultadoModeracion;
+import com.donaciones.donacionesbackend.entity.EstadoPunto;
+import com.donaciones.donacionesbackend.entity.PuntoDonacion;
+import com.donaciones.donacionesbackend.event.PuntoDonacionCambiadoEvent;
+import com.donaciones.donacionesbackend.repository.PuntoDonacionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * aprobar o rechazar muchos puntos de una vez (después de una campaña llegan decenas juntos)
+ * todo el lote va en una transacción: un SELECT con todos los ids y los UPDATE salen
+ * agrupados en batches de JDBC (hibernate.jdbc.batch_size), en vez de un findById + save por punto
+ */
+@Service
+public class ModeracionPuntosService {
+
+    @Autowired
+    private PuntoDonacionRepository puntoDonacionRepository;
+
+    @Autowired
+    private ResumenOrganizacionService resumenOrganizacionService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * aplica el lote y devuelve un resultado por ítem, en el mismo orden
+     * los ítems inválidos o de puntos que no existen no frenan al resto
+     */
+    @Transactional
+    public List<ResultadoModeracion> aplicarLote(List<ItemModeracion> items) {
+        // Valido primero; los que pasan quedan indexados por id (un id repetido es un error del cliente)
+        Map<Long, EstadoPunto> decisiones = new HashMap<>();
+        Map<Integer, String> errores = new HashMap<>();
+        Set<Long> repetidos = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            ItemModeracion item = items.get(i);
+            if (item == null || item.id() == null) {
+                errores.put(i, "id requerido");
+                continue;
+            }
+            EstadoPunto estado = estadoPara(item.accion());
+            if (estado == null) {
+                errores.put(i, "accion inválida, usar APROBAR o RECHAZAR");
+            } else if (decisiones.putIfAbsent(item.id(), estado) != null) {
+                repetidos.add(item.id());
+            }
+        }
+        for (Long id : repetidos) {
+            decisiones.remove(id);
+        }
+
+        // Un solo SELECT para todos los puntos del lote
+        Map<Long, PuntoDonacion> puntos = new LinkedHashMap<>();
+        if (!decisiones.isEmpty()) {
+            for (PuntoDonacion punto : puntoDonacionRepository.findAllById(decisiones.keySet())) {
+                puntos.put(punto.getId(), punto);
+            }
+        }
+
+        // Mismos cambios que /aprobar y /rechazar; Hibernate los manda juntos al hacer flush
+        List<ResultadoModeracion> resultados = new ArrayList<>(items.size());
+        List<PuntoDonacion> modificados = new ArrayList<>();
+        Map<Long, EstadoPunto> estadosAnteriores = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            ItemModeracion item = items.get(i);
+            Long id = item != null ? item.id() : null;
+            if (errores.containsKey(i)) {
+                resultados.add(ResultadoModeracion.fallido(id, errores.get(i)));
+                continue;
+            }
+            if (repetidos.contains(id)) {
+                resultados.add(ResultadoModeracion.fallido(id, "id repetido en el lote"));
+                continue;
+            }
+            PuntoDonacion punto = puntos.get(id);
+            if (punto == null) {
+                resultados.add(ResultadoModeracion.fallido(id, "punto no encontrado"));
+                continue;
+            }
+            EstadoPunto estado = decisiones.get(id);
+            estadosAnteriores.put(id, punto.getEstado());
+            punto.setEstado(estado);
+            if (estado == EstadoPunto.ACTIVO) {
+                punto.setActivo(true);
+                punto.setMotivoRechazo(null);
+            } else {
+                punto.setMotivoRechazo(item.motivoRechazo());
+            }
+            modificados.add(punto);
+            resultados.add(ResultadoModeracion.aplicado(id, estado));
+        }
+
+        puntoDonacionRepository.saveAll(modificados);
+        puntoDonacionRepository.flush();
+        resumenOrganizacionService.estadosCambiados(modificados, estadosAnteriores);
+        // Los listeners (mapa, snapshot, stream) recién los procesan después del commit
+        for (PuntoDonacion punto : modificados) {
+            eventPublisher.publishEvent(PuntoDonacionCambiadoEvent.guardado(punto));
+        }
+        return resultados;
+    }
+
+    private static EstadoPunto estadoPara(String accion) {
+        if (accion == null) {
+            return null;
+        }
+        switch (accion.trim().toUpperCase(Locale.ROOT)) {
+            case "APROBAR":
+                return EstadoPunto.ACTIVO;
+            case "RECHAZAR":
+                return EstadoPunto.RECHAZADO;
+            default:
+                return null;
+        }
+    }
+}
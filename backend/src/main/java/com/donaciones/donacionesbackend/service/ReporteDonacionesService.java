@@ -0,0 +1,270 @@
+package com.donaciones.donacionesbackend.service;
+
+import com.donaciones.donacionesbackend.entity.EstadoDonacion;
+import com.donaciones.donacionesbackend.util.EscritorCsv;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * reporte de donaciones de un rango de fechas en CSV (los reportes de fin de año del admin)
+ * igual que la exportación de puntos: un ResultSet de solo avance en modo streaming y cada fila
+ * va directo a la respuesta, sin entidades ni listas, así la memoria no depende del rango.
+ * Sale ordenado por (fecha_donacion, id); si la descarga se corta, se retoma pasando el id
+ * de la última fila recibida y sigue desde ahí por keyset, sin repetir ni saltear filas.
+ * Lee también las donaciones archivadas (donaciones_archivo); si el rango está entero en una sola
+ * de las dos tablas se lee solo esa, en el orden del índice, sin juntar ni reordenar.
+ * Si está en las dos, no se hace UNION ALL ... ORDER BY (la base armaría y ordenaría el rango entero
+ * antes de mandar la primera fila): se piden páginas chicas de cada tabla por keyset, cada una en
+ * el orden de su índice, y se van mezclando acá (sale siempre la de menor (fecha, id))
+ */
+@Service
+public class ReporteDonacionesService {
+
+    private static final String COLUMNAS = "SELECT id, fecha_donacion, punto_donacion_id, donante_id, tipo_donacion, " +
+        "cantidad, estado, beneficiario_id, fecha_entrega, descripcion FROM %s " +
+        "WHERE fecha_donacion >= ? AND fecha_donacion < ?";
+
+    private static final String HAY_EN_RANGO = "SELECT EXISTS (SELECT 1 FROM %s " +
+        "WHERE fecha_donacion >= ? AND fecha_donacion < ?)";
+
+    private static final String FECHA = "SELECT fecha_donacion FROM donaciones WHERE id = ? " +
+        "UNION ALL SELECT fecha_donacion FROM donaciones_archivo WHERE id = ?";
+
+    private static final List<String> TABLAS = List.of("donaciones", "donaciones_archivo");
+
+    private static final String DESPUES_DE = " AND (fecha_donacion > ? OR (fecha_donacion = ? AND id > ?))";
+
+    private static final String ORDEN = " ORDER BY fecha_donacion, id";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Mismo fetch size que la exportación de puntos (Integer.MIN_VALUE = streaming en MySQL)
+    @Value("${app.exportacion.fetch-size:-2147483648}")
+    private int fetchSize;
+
+    // Filas por página de cada tabla cuando hay que mezclar las dos
+    @Value("${app.reporte-donaciones.lote:1000}")
+    private int tamanoLote;
+
+    private JdbcTemplate jdbcTemplate;
+
+    // Transacción de solo lectura: InnoDB no le asigna id ni arma undo para ella
+    private TransactionTemplate soloLectura;
+
+    /** rango de días [desde, hasta] inclusive y filtros opcionales; despuesDe es el cursor */
+    public record Filtro(LocalDate desde, LocalDate hasta, Long puntoId, EstadoDonacion estado, Posicion despuesDe) {}
+
+    /** clave de orden de la última fila que recibió el cliente */
+    public record Posicion(LocalDateTime fechaDonacion, Long id) {}
+
+    @PostConstruct
+    public void inicializar() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+        soloLectura = new TransactionTemplate(transactionManager);
+        soloLectura.setReadOnly(true);
+    }
+
+    /**
+     * posición desde la que retomar: la de la donación con ese id (la última que llegó)
+     * lanza IllegalArgumentException si no existe
+     */
+    public Posicion posicion(Long despuesDeId) {
+        // Puede haberse archivado entre la descarga que se cortó y esta
+        List<Timestamp> fechas = jdbcTemplate.queryForList(FECHA, Timestamp.class, despuesDeId, despuesDeId);
+        if (fechas.isEmpty()) {
+            throw new IllegalArgumentException("despuesDe: la donación " + despuesDeId + " no existe");
+        }
+        if (fechas.get(0) == null) {
+            throw new IllegalArgumentException("despuesDe: la donación " + despuesDeId + " no tiene fecha");
+        }
+        return new Posicion(fechas.get(0).toLocalDateTime(), despuesDeId);
+    }
+
+    /** escribe el encabezado y una fila por donación a medida que llegan de la base */
+    public void escribirCsv(OutputStream salida, Filtro filtro) throws IOException {
+        Writer writer = new OutputStreamWriter(salida, StandardCharsets.UTF_8);
+        EscritorCsv.fila(writer, "id", "fechaDonacion", "puntoDonacionId", "donanteId", "tipoDonacion",
+            "cantidad", "estado", "beneficiarioId", "fechaEntrega", "descripcion");
+        writer.flush();
+
+        Timestamp desde = Timestamp.valueOf(filtro.desde().atStartOfDay());
+        Timestamp hasta = Timestamp.valueOf(filtro.hasta().plusDays(1).atStartOfDay());
+        StringBuilder condiciones = new StringBuilder();
+        List<Object> parametrosTabla = new ArrayList<>();
+        parametrosTabla.add(desde);
+        parametrosTabla.add(hasta);
+        if (filtro.puntoId() != null) {
+            condiciones.append(" AND punto_donacion_id = ?");
+            parametrosTabla.add(filtro.puntoId());
+        }
+        if (filtro.estado() != null) {
+            condiciones.append(" AND estado = ?");
+            parametrosTabla.add(filtro.estado().name());
+        }
+        if (filtro.despuesDe() != null) {
+            Timestamp fecha = Timestamp.valueOf(filtro.despuesDe().fechaDonacion());
+            condiciones.append(DESPUES_DE);
+            parametrosTabla.add(fecha);
+            parametrosTabla.add(fecha);
+            parametrosTabla.add(filtro.despuesDe().id());
+        }
+
+        try {
+            soloLectura.executeWithoutResult(status -> {
+                // Solo las tablas que tienen algo en el rango; con una sola no hace falta mezclar
+                List<String> tablas = new ArrayList<>();
+                for (String tabla : TABLAS) {
+                    if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(String.format(HAY_EN_RANGO, tabla),
+                            Boolean.class, desde, hasta))) {
+                        tablas.add(tabla);
+                    }
+                }
+                if (tablas.isEmpty()) {
+                    return;
+                }
+                if (tablas.size() == 1) {
+                    escribirFilas(writer, String.format(COLUMNAS, tablas.get(0)) + condiciones + ORDEN,
+                        parametrosTabla.toArray());
+                    return;
+                }
+                // Todas las páginas en la misma transacción: una donación que se archiva en el medio no sale dos veces
+                List<Paginas> paginas = new ArrayList<>();
+                for (String tabla : tablas) {
+                    paginas.add(new Paginas(tabla, condiciones.toString(), parametrosTabla));
+                }
+                mezclar(writer, paginas);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void escribirFilas(Writer writer, String sql, Object[] parametros) {
+        jdbcTemplate.query(sql, rs -> {
+            escribir(writer, Fila.leer(rs));
+        }, parametros);
+    }
+
+    // Como mucho una página por tabla en memoria; la tabla de la fila que sale pide la siguiente al vaciarse
+    private void mezclar(Writer writer, List<Paginas> paginas) {
+        while (true) {
+            Paginas menor = null;
+            for (Paginas tabla : paginas) {
+                Fila fila = tabla.actual();
+                if (fila != null && (menor == null || fila.antesQue(menor.actual()))) {
+                    menor = tabla;
+                }
+            }
+            if (menor == null) {
+                return;
+            }
+            escribir(writer, menor.sacar());
+        }
+    }
+
+    private static void escribir(Writer writer, Fila fila) {
+        try {
+            EscritorCsv.fila(writer, fila.id(), texto(fila.fechaDonacion()), fila.puntoDonacionId(), fila.donanteId(),
+                fila.tipoDonacion(), fila.cantidad(), fila.estado(), fila.beneficiarioId(),
+                texto(fila.fechaEntrega()), fila.descripcion());
+        } catch (IOException e) {
+            // El cliente cortó: corto la consulta también
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String texto(Timestamp valor) {
+        return valor != null ? valor.toLocalDateTime().toString() : null;
+    }
+
+    // Las filas de una tabla en orden (fecha, id), de a una página por vez
+    private class Paginas {
+        private final String primera;
+        private final String siguiente;
+        private final List<Object> parametros;
+        private final Deque<Fila> pagina = new ArrayDeque<>();
+        private boolean agotada;
+
+        Paginas(String tabla, String condiciones, List<Object> parametros) {
+            String consulta = String.format(COLUMNAS, tabla) + condiciones;
+            this.primera = consulta + ORDEN + " LIMIT ?";
+            this.siguiente = consulta + DESPUES_DE + ORDEN + " LIMIT ?";
+            this.parametros = parametros;
+            pedir(null);
+        }
+
+        // Próxima fila de esta tabla sin sacarla; null si no quedan
+        Fila actual() {
+            return pagina.peekFirst();
+        }
+
+        Fila sacar() {
+            Fila fila = pagina.pollFirst();
+            if (pagina.isEmpty() && !agotada) {
+                pedir(fila);
+            }
+            return fila;
+        }
+
+        // La página que sigue a la fila ultima (la primera si es null), por el índice de fecha
+        private void pedir(Fila ultima) {
+            List<Object> valores = new ArrayList<>(parametros);
+            if (ultima != null) {
+                valores.add(ultima.fechaDonacion());
+                valores.add(ultima.fechaDonacion());
+                valores.add(ultima.id());
+            }
+            valores.add(tamanoLote);
+            List<Fila> filas = jdbcTemplate.query(ultima != null ? siguiente : primera,
+                (rs, numero) -> Fila.leer(rs), valores.toArray());
+            pagina.addAll(filas);
+            agotada = filas.size() < tamanoLote;
+        }
+    }
+
+    // Una donación del reporte
+    private record Fila(long id, Timestamp fechaDonacion, long puntoDonacionId, Object donanteId, String tipoDonacion,
+                        int cantidad, String estado, Object beneficiarioId, Timestamp fechaEntrega, String descripcion) {
+
+        static Fila leer(ResultSet rs) throws SQLException {
+            return new Fila(rs.getLong("id"), rs.getTimestamp("fecha_donacion"), rs.getLong("punto_donacion_id"),
+                rs.getObject("donante_id"), rs.getString("tipo_donacion"), rs.getInt("cantidad"),
+                rs.getString("estado"), rs.getObject("beneficiario_id"), rs.getTimestamp("fecha_entrega"),
+                rs.getString("descripcion"));
+        }
+
+        // Orden del reporte: (fecha_donacion, id)
+        boolean antesQue(Fila otra) {
+            int fecha = fechaDonacion.compareTo(otra.fechaDonacion);
+            return fecha < 0 || (fecha == 0 && id < otra.id);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.donaciones.donacionesbackend.service;
+
+import com.donaciones.donacionesbackend.dto.ConteoPuntos;
+import com.donaciones.donacionesbackend.dto.ResumenOrganizacion;
+import com.donaciones.donacionesbackend.entity.ContadoresOrganizacion;
+import com.donaciones.donacionesbackend.entity.EstadoPunto;
+import com.donaciones.donacionesbackend.entity.PuntoDonacion;
+import com.donaciones.donacionesbackend.entity.Rol;
+import com.donaciones.donacionesbackend.repository.ContadoresOrganizacionRepository;
+import com.donaciones.donacionesbackend.repository.PuntoDonacionRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * contadores del panel de cada organización (GET /organizaciones/{id}/resumen)
+ * cada alta, cambio de estado, baja o favorito suma o resta en la misma transacción que el cambio,
+ * así el panel es leer una fila y no contar todos los puntos en cada visita
+ * si algo se escapa (un cambio hecho a mano en la base, una fila creada justo durante un cambio)
+ * la reconciliación periódica lo corrige contra las tablas
+ */
+@Service
+public class ResumenOrganizacionService {
+
+    @Autowired
+    private ContadoresOrganizacionRepository contadoresRepository;
+
+    @Autowired
+    private PuntoDonacionRepository puntoDonacionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /** resumen de la organización; la primera vez arma sus contadores desde las tablas */
+    public ResumenOrganizacion obtener(Long organizacionId) {
+        ContadoresOrganizacion contadores = contadoresRepository.findById(organizacionId)
+            .orElseGet(() -> crear(organizacionId));
+        return ResumenOrganizacion.de(contadores,
+            puntoDonacionRepository.findFavoritosPorPunto(organizacionId, Rol.ORGANIZACION));
+    }
+
+    /** suma los puntos nuevos a los contadores de su organización (los de admin no cuentan) */
+    @Transactional
+    public void puntosCreados(Collection<PuntoDonacion> puntos) {
+        Map<Long, Delta> deltas = new HashMap<>();
+        for (PuntoDonacion punto : puntos) {
+            if (esDeOrganizacion(punto)) {
+                deltas.computeIfAbsent(punto.getUsuarioCreadorId(), id -> new Delta()).sumar(punto.getEstado(), 1);
+            }
+        }
+        aplicar(deltas);
+    }
+
+    @Transactional
+    public void puntoCreado(PuntoDonacion punto) {
+        puntosCreados(List.of(punto));
+    }
+
+    /**
+     * pasa cada punto del estado que tenía antes (anteriores: id -> estado) al que tiene ahora
+     * los que no cambiaron de estado no generan ningún UPDATE
+     */
+    @Transactional
+    public void estadosCambiados(Collection<PuntoDonacion> puntos, Map<Long, EstadoPunto> anteriores) {
+        Map<Long, Delta> deltas = new HashMap<>();
+        for (PuntoDonacion punto : puntos) {
+            EstadoPunto anterior = anteriores.get(punto.getId());
+            if (esDeOrganizacion(punto) && anterior != punto.getEstado()) {
+                Delta delta = deltas.computeIfAbsent(punto.getUsuarioCreadorId(), id -> new Delta());
+                delta.sumar(anterior, -1);
+                delta.sumar(punto.getEstado(), 1);
+            }
+        }
+        aplicar(deltas);
+    }
+
+    @Transactional
+    public void estadoCambiado(PuntoDonacion punto, EstadoPunto anterior) {
+        estadosCambiados(List.of(punto), Map.of(punto.getId(), anterior));
+    }
+
+    /** descuenta esos puntos y sus favoritos; se llama antes del DELETE, cuando todavía se pueden contar */
+    @Transactional
+    public void antesDeEliminar(Collection<Long> puntoIds) {
+        if (puntoIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Delta> deltas = new HashMap<>();
+        for (ConteoPuntos conteo : puntoDonacionRepository.contarPorOrganizacionDe(puntoIds, Rol.ORGANIZACION)) {
+            Delta delta = deltas.computeIfAbsent(conteo.organizacionId(), id -> new Delta());
+            delta.sumar(conteo.estado(), -conteo.cantidad());
+            delta.favoritos -= conteo.favoritos();
+        }
+        aplicar(deltas);
+    }
+
+    @Transactional
+    public void favoritoAgregado(Long puntoId) {
+        puntoDonacionRepository.sumarFavoritos(puntoId, 1);
+        contadoresRepository.sumarFavoritosDelCreador(puntoId, 1, Rol.ORGANIZACION);
+    }
+
+    @Transactional
+    public void favoritoQuitado(Long puntoId) {
+        puntoDonacionRepository.sumarFavoritos(puntoId, -1);
+        contadoresRepository.sumarFavoritosDelCreador(puntoId, -1, Rol.ORGANIZACION);
+    }
+
+    /**
+     * al arrancar reconcilio una vez: cantidad_favoritos llega en 0 a las filas que ya existían cuando
+     * se agregó la columna, y crear() toma los favoritos de ahí. Corre al crear el bean, antes de que
+     * el servidor reciba pedidos; la reconciliación programada recién pasa una hora después
+     */
+    @PostConstruct
+    public void inicializar() {
+        reconciliar();
+    }
+
+    /**
+     * vuelve a contar todo contra las tablas y corrige lo que no coincide
+     * primero los favoritos de cada punto (en su propia transacción, para no tener bloqueada
+     * la tabla de puntos mientras se revisan las organizaciones) y después los contadores:
+     * se leen filas y tablas en la misma transacción (misma foto en MySQL) y solo se pisa
+     * una fila si su versión sigue igual, así no se pierde un cambio que entró mientras contaba
+     */
+    @Scheduled(initialDelayString = "${app.resumen-organizaciones.reconciliar-ms:3600000}",
+               fixedDelayString = "${app.resumen-organizaciones.reconciliar-ms:3600000}")
+    public void reconciliar() {
+        try {
+            Integer favoritosCorregidos = transactionTemplate.execute(status -> puntoDonacionRepository.reconciliarFavoritos());
+            Integer corregidas = transactionTemplate.execute(status -> reconciliarContadores());
+            if (corregidas > 0 || favoritosCorregidos > 0) {
+                System.out.println("Resumen de organizaciones reconciliado: " + corregidas + " organizaciones y "
+                    + favoritosCorregidos + " puntos corregidos");
+            }
+        } catch (Exception e) {
+            System.err.println("No se pudo reconciliar el resumen de organizaciones: " + e.getMessage());
+        }
+    }
+
+    private int reconciliarContadores() {
+        List<ContadoresOrganizacion> filas = contadoresRepository.findAll();
+        Map<Long, Delta> reales = new HashMap<>();
+        for (ConteoPuntos conteo : puntoDonacionRepository.contarPorOrganizacion(Rol.ORGANIZACION)) {
+            Delta real = reales.computeIfAbsent(conteo.organizacionId(), id -> new Delta());
+            real.sumar(conteo.estado(), conteo.cantidad());
+            real.favoritos += conteo.favoritos();
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        int corregidas = 0;
+        for (ContadoresOrganizacion fila : filas) {
+            Delta real = reales.getOrDefault(fila.getOrganizacionId(), new Delta());
+            if (!real.coincideCon(fila) && contadoresRepository.corregir(fila.getOrganizacionId(), fila.getVersion(),
+                    real.pendientes, real.activos, real.rechazados, real.favoritos, ahora) > 0) {
+                corregidas++;
+            }
+        }
+        contadoresRepository.marcarReconciliadas(ahora);
+        return corregidas;
+    }
+
+    // Primera visita: cuenta los puntos de esa organización y guarda la fila
+    private ContadoresOrganizacion crear(Long organizacionId) {
+        ContadoresOrganizacion nuevos = new ContadoresOrganizacion(organizacionId);
+        Delta real = new Delta();
+        for (ConteoPuntos conteo : puntoDonacionRepository.contarDeOrganizacion(organizacionId, Rol.ORGANIZACION)) {
+            real.sumar(conteo.estado(), conteo.cantidad());
+            real.favoritos += conteo.favoritos();
+        }
+        nuevos.setPendientes(real.pendientes);
+        nuevos.setActivos(real.activos);
+        nuevos.setRechazados(real.rechazados);
+        nuevos.setFavoritos(real.favoritos);
+        try {
+            return transactionTemplate.execute(status -> contadoresRepository.saveAndFlush(nuevos));
+        } catch (DataIntegrityViolationException e) {
+            // Otro pedido la creó al mismo tiempo
+            return contadoresRepository.findById(organizacionId).orElse(nuevos);
+        }
+    }
+
+    // Un UPDATE por organización afectada; si todavía no tiene fila no hay nada que sumar
+    private void aplicar(Map<Long, Delta> deltas) {
+        for (Map.Entry<Long, Delta> entrada : deltas.entrySet()) {
+            Delta delta = entrada.getValue();
+            if (!delta.esCero()) {
+                contadoresRepository.sumar(entrada.getKey(),
+                    delta.pendientes, delta.activos, delta.rechazados, delta.favoritos);
+            }
+        }
+    }
+
+    private static boolean esDeOrganizacion(PuntoDonacion punto) {
+        return punto.getTipoCreador() == Rol.ORGANIZACION && punto.getUsuarioCreadorId() != null;
+    }
+
+    // Cambio (o total) de cada contador de una organización
+    private static class Delta {
+        long pendientes;
+        long activos;
+        long rechazados;
+        long favoritos;
+
+        void sumar(EstadoPunto estado, long cantidad) {
+            if (estado == null) {
+                return;
+            }
+            switch (estado) {
+                case PENDIENTE -> pendientes += cantidad;
+                case ACTIVO -> activos += cantidad;
+                case RECHAZADO -> rechazados += cantidad;
+            }
+        }
+
+        boolean esCero() {
+            return pendientes == 0 && activos == 0 && rechazados == 0 && favoritos == 0;
+        }
+
+        boolean coincideCon(ContadoresOrganizacion fila) {
+            return pendientes == fila.getPendientes() && activos == fila.getActivos()
+                && rechazados == fila.getRechazados() && favoritos == fila.getFavoritos();
+        }
+    }
+}
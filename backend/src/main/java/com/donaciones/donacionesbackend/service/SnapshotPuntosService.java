@@ -0,0 +1,178 @@
+package com.donaciones.donacionesbackend.service;
+
+import com.donaciones.donacionesbackend.entity.EstadoPunto;
+import com.donaciones.donacionesbackend.event.PuntoDonacionCambiadoEvent;
+import com.donaciones.donacionesbackend.repository.PuntoDonacionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * guarda en memoria la lista pública de puntos (la del mapa) ya convertida a JSON
+ * los puntos cambian pocas veces por día, así que la mayoría de las cargas del mapa
+ * se responden sin ir a MySQL ni volver a serializar. Cada cambio sube la generación
+ * y el próximo pedido arma un snapshot nuevo con su ETag
+ */
+@Service
+public class SnapshotPuntosService {
+
+    @Autowired
+    private PuntoDonacionRepository puntoDonacionRepository;
+
+    // El mismo ObjectMapper que usa Spring MVC, para que el JSON salga igual que antes
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Desde qué tamaño guardo también la versión en gzip (el mismo umbral que la compresión de Tomcat)
+    @Value("${server.compression.min-response-size:2KB}")
+    private DataSize minimoGzip;
+
+    // Se incrementa con cada alta, cambio o baja de un punto
+    private final AtomicLong generacion = new AtomicLong();
+
+    // Lista completa (GET /puntos-donacion) y solo marcadores (GET /puntos-donacion/pines)
+    private final Cache lista = new Cache(() -> puntoDonacionRepository.findByActivoTrueAndEstado(EstadoPunto.ACTIVO));
+
+    private final Cache pines = new Cache(() -> puntoDonacionRepository.findPines(EstadoPunto.ACTIVO));
+
+    /** snapshot vigente de la lista completa; si algo cambió desde el último, lo reconstruye */
+    public Snapshot obtener() throws JsonProcessingException {
+        return lista.obtener();
+    }
+
+    /** lo mismo pero solo con los datos del marcador (PinPunto) */
+    public Snapshot obtenerPines() throws JsonProcessingException {
+        return pines.obtener();
+    }
+
+    /**
+     * invalida el snapshot después del commit de cualquier cambio de puntos
+     * corre antes que CambiosPuntosService: cuando la versión de cambios sube, el snapshot ya es viejo
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPuntoCambiado(PuntoDonacionCambiadoEvent evento) {
+        generacion.incrementAndGet();
+    }
+
+    // ETag fuerte: hash del contenido, así no cambia entre reinicios si los datos son los mismos
+    private static String calcularEtag(byte[] json) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    // Se comprime una vez por snapshot y no en cada pedido
+    private static byte[] comprimir(byte[] json) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+
+    /** true si el cliente acepta gzip (y no lo rechaza con q=0) */
+    public static boolean aceptaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String valor : acceptEncoding.split(",")) {
+            String[] partes = valor.trim().split(";");
+            String codificacion = partes[0].trim();
+            if (codificacion.equalsIgnoreCase("gzip") || codificacion.equals("*")) {
+                for (int i = 1; i < partes.length; i++) {
+                    String parametro = partes[i].trim().replace(" ", "");
+                    if (parametro.equals("q=0") || parametro.matches("q=0\\.0*")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Un snapshot y cómo reconstruirlo; comparten la misma generación
+    private class Cache {
+        private final Supplier<List<?>> consulta;
+        private volatile Snapshot snapshot;
+
+        Cache(Supplier<List<?>> consulta) {
+            this.consulta = consulta;
+        }
+
+        Snapshot obtener() throws JsonProcessingException {
+            Snapshot actual = snapshot;
+            if (actual != null && actual.generacion() == generacion.get()) {
+                return actual;
+            }
+            synchronized (this) {
+                long generacionLeida = generacion.get();
+                actual = snapshot;
+                if (actual != null && actual.generacion() == generacionLeida) {
+                    return actual;
+                }
+                byte[] json = objectMapper.writeValueAsBytes(consulta.get());
+                byte[] gzip = json.length >= minimoGzip.toBytes() ? comprimir(json) : null;
+                Snapshot nuevo = new Snapshot(generacionLeida, json, calcularEtag(json), gzip);
+                // Si mientras leía llegó una invalidación, no lo guardo: ya nació viejo
+                if (generacion.get() == generacionLeida) {
+                    snapshot = nuevo;
+                }
+                return nuevo;
+            }
+        }
+    }
+
+    /**
+     * lista pública serializada, con la generación de la que salió y su ETag
+     * gzip es la misma lista ya comprimida (null si es más chica que el umbral)
+     */
+    public record Snapshot(long generacion, byte[] json, String etag, byte[] gzip) {
+
+        /** la variante comprimida lleva otro ETag fuerte, porque los bytes son otros */
+        public String etagGzip() {
+            return etag.substring(0, etag.length() - 1) + "-gz\"";
+        }
+
+        /** true si el header If-None-Match del navegador incluye este ETag */
+        public boolean coincideCon(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String valor : ifNoneMatch.split(",")) {
+                String etagCliente = valor.trim();
+                // If-None-Match compara en forma débil: ignoro el prefijo W/
+                if (etagCliente.startsWith("W/")) {
+                    etagCliente = etagCliente.substring(2);
+                }
+                if (etagCliente.equals("*") || etagCliente.equals(etag) || etagCliente.equals(etagGzip())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.donaciones.donacionesbackend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * avisos en vivo (Server-Sent Events) de puntos publicados o retirados del mapa
+ * cada conexión es asíncrona en Tomcat, así que miles de donantes con el mapa abierto
+ * no ocupan un hilo cada uno. Publicar solo encola en un buffer acotado por suscriptor;
+ * un pool chico de hilos vacía los buffers. Si un cliente lento llena su buffer (o llega una
+ * moderación o importación grande) se descarta lo pendiente y le queda un único evento resync:
+ * con eso pide /puntos-donacion/cambios una vez y se pone al día, sin desconectarlo.
+ * Un envío que se traba (el cliente no lee y se llena el socket) no le quita el hilo a los demás:
+ * la revisión periódica lo detecta y suma un hilo al pool mientras siga trabado
+ */
+@Service
+public class StreamPuntosService {
+
+    @Value("${app.stream-puntos.buffer:32}")
+    private int tamanoBuffer;
+
+    @Value("${app.stream-puntos.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    // Pocos hilos alcanzan: solo escriben eventos chicos ya serializados
+    @Value("${app.stream-puntos.hilos:4}")
+    private int hilos;
+
+    // Tope de hilos contando los que se suman por envíos trabados
+    @Value("${app.stream-puntos.hilos-max:64}")
+    private int hilosMax;
+
+    // Un envío que tarda más que esto se considera trabado
+    @Value("${app.stream-puntos.envio-lento-ms:2000}")
+    private long envioLentoMs;
+
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+
+    // Los que están escribiendo ahora (incluye los que se cerraron en medio de un envío)
+    private final Set<Suscriptor> enEnvio = ConcurrentHashMap.newKeySet();
+
+    // Última versión publicada, para el id del evento resync
+    private final AtomicLong ultimaVersion = new AtomicLong();
+
+    private ThreadPoolExecutor envios;
+
+    @PostConstruct
+    public void iniciar() {
+        envios = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), new FabricaHilos());
+    }
+
+    /**
+     * abre un stream nuevo; el primer evento lleva la versión actual del registro de cambios
+     * para que el cliente sepa desde dónde pedir /cambios si se perdió algo
+     */
+    public SseEmitter suscribir(long versionActual) {
+        ultimaVersion.accumulateAndGet(versionActual, Math::max);
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Suscriptor suscriptor = new Suscriptor(emitter, tamanoBuffer);
+        emitter.onCompletion(() -> suscriptores.remove(suscriptor));
+        emitter.onTimeout(() -> suscriptor.cerrar());
+        emitter.onError(e -> suscriptor.cerrar());
+        suscriptores.add(suscriptor);
+        suscriptor.encolar(construir(SseEmitter.event()
+            .id(String.valueOf(versionActual))
+            .name("version")
+            .data("{\"version\":" + versionActual + "}")));
+        return emitter;
+    }
+
+    /**
+     * reparte un cambio a todos los suscriptores sin bloquear al que publica
+     * el JSON se arma una sola vez y se comparte entre todas las conexiones
+     */
+    public void publicar(long version, Long puntoId, boolean visible) {
+        ultimaVersion.accumulateAndGet(version, Math::max);
+        if (suscriptores.isEmpty()) {
+            return;
+        }
+        String accion = visible ? "PUBLICADO" : "RETIRADO";
+        Set<ResponseBodyEmitter.DataWithMediaType> evento = construir(SseEmitter.event()
+            .id(String.valueOf(version))
+            .name("punto")
+            .data("{\"version\":" + version + ",\"id\":" + puntoId + ",\"accion\":\"" + accion + "\"}"));
+        for (Suscriptor suscriptor : suscriptores) {
+            suscriptor.encolar(evento);
+        }
+    }
+
+    /** comentario vacío periódico para que proxies no corten la conexión y detectar clientes caídos */
+    @Scheduled(fixedDelayString = "${app.stream-puntos.heartbeat-ms:25000}")
+    public void enviarHeartbeat() {
+        if (suscriptores.isEmpty()) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> latido = construir(SseEmitter.event().comment("ping"));
+        for (Suscriptor suscriptor : suscriptores) {
+            suscriptor.encolar(latido);
+        }
+    }
+
+    /** busca envíos trabados y por cada uno suma un hilo, así el resto de los suscriptores sigue recibiendo */
+    @Scheduled(fixedDelayString = "${app.stream-puntos.revision-ms:1000}")
+    public void revisarEnvios() {
+        long limite = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(envioLentoMs);
+        for (Suscriptor suscriptor : enEnvio) {
+            long desde = suscriptor.envioDesde;
+            if (desde != 0 && desde - limite < 0) {
+                compensar(suscriptor);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void apagar() {
+        for (Suscriptor suscriptor : suscriptores) {
+            suscriptor.cerrar();
+        }
+        envios.shutdown();
+    }
+
+    // Un hilo más mientras este suscriptor siga trabado (hasta hilos-max)
+    private synchronized void compensar(Suscriptor suscriptor) {
+        if (suscriptor.envioDesde == 0 || suscriptor.compensado || envios.getMaximumPoolSize() >= hilosMax) {
+            return;
+        }
+        suscriptor.compensado = true;
+        int tamano = envios.getMaximumPoolSize() + 1;
+        envios.setMaximumPoolSize(tamano);
+        envios.setCorePoolSize(tamano); // arranca un hilo nuevo si hay envíos esperando
+        System.out.println("Stream de puntos: envío trabado, pool de envíos en " + tamano + " hilos");
+    }
+
+    // Terminó de enviar: si tenía un hilo de compensación, el pool vuelve a su tamaño
+    private synchronized void terminarEnvio(Suscriptor suscriptor) {
+        suscriptor.envioDesde = 0;
+        if (suscriptor.compensado) {
+            suscriptor.compensado = false;
+            int tamano = envios.getCorePoolSize() - 1;
+            envios.setCorePoolSize(tamano); // el hilo sobrante termina cuando queda libre
+            envios.setMaximumPoolSize(tamano);
+        }
+    }
+
+    // build() del builder no se puede llamar dos veces, así que lo hago una vez y comparto el resultado
+    private static Set<ResponseBodyEmitter.DataWithMediaType> construir(SseEmitter.SseEventBuilder builder) {
+        return Collections.unmodifiableSet(builder.build());
+    }
+
+    // Una conexión abierta con su buffer propio
+    private class Suscriptor {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> buffer;
+        private final AtomicBoolean enviando = new AtomicBoolean(false);
+        private final AtomicBoolean cerrado = new AtomicBoolean(false);
+        private final AtomicBoolean completado = new AtomicBoolean(false);
+
+        // Evento resync encolado en lugar de lo que no entró; hasta que sale no se encola nada más
+        private volatile Set<ResponseBodyEmitter.DataWithMediaType> resync;
+
+        // System.nanoTime() del envío en curso (0 = no está enviando)
+        private volatile long envioDesde;
+
+        // Lo cambian solo compensar y terminarEnvio, con el lock del servicio
+        private boolean compensado;
+
+        Suscriptor(SseEmitter emitter, int capacidad) {
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(capacidad);
+        }
+
+        void encolar(Set<ResponseBodyEmitter.DataWithMediaType> evento) {
+            if (cerrado.get() || resync != null) {
+                return;
+            }
+            if (!buffer.offer(evento)) {
+                desbordar();
+            }
+            programarEnvio();
+        }
+
+        // Buffer lleno: lo pendiente se reemplaza por un solo aviso de que hay que pedir /cambios
+        private synchronized void desbordar() {
+            if (resync != null) {
+                return;
+            }
+            long version = ultimaVersion.get();
+            Set<ResponseBodyEmitter.DataWithMediaType> evento = construir(SseEmitter.event()
+                .id(String.valueOf(version))
+                .name("resync")
+                .data("{\"version\":" + version + "}"));
+            resync = evento;
+            buffer.clear();
+            while (!buffer.offer(evento)) {
+                buffer.poll(); // otro publicador metió algo entre el clear y el offer
+            }
+        }
+
+        // Como mucho un hilo por suscriptor a la vez, así se respeta el orden de los eventos
+        private void programarEnvio() {
+            if (enviando.compareAndSet(false, true)) {
+                try {
+                    envios.execute(this::vaciar);
+                } catch (Exception e) {
+                    enviando.set(false); // pool cerrado al apagar el servidor
+                }
+            }
+        }
+
+        // Solo este método toca el emitter: si se cerró mientras enviaba, lo completa al terminar
+        private void vaciar() {
+            enEnvio.add(this);
+            try {
+                Set<ResponseBodyEmitter.DataWithMediaType> evento;
+                while (!cerrado.get() && (evento = buffer.poll()) != null) {
+                    if (evento == resync) {
+                        resync = null; // lo que se publique desde ahora lo pide igual con /cambios
+                    }
+                    envioDesde = System.nanoTime();
+                    emitter.send(evento);
+                    envioDesde = 0;
+                }
+                if (cerrado.get() && completado.compareAndSet(false, true)) {
+                    emitter.complete();
+                }
+            } catch (Exception e) {
+                completado.set(true); // el cliente se fue, no hay nada que completar
+                cerrar();
+            } finally {
+                enEnvio.remove(this);
+                terminarEnvio(this);
+                enviando.set(false);
+                if (cerrado.get() ? !completado.get() : !buffer.isEmpty()) {
+                    programarEnvio();
+                }
+            }
+        }
+
+        // No completa el emitter acá: si hay un envío trabado, complete() esperaría al mismo lock
+        void cerrar() {
+            if (cerrado.compareAndSet(false, true)) {
+                suscriptores.remove(this);
+                buffer.clear();
+                programarEnvio();
+            }
+        }
+    }
+
+    private static class FabricaHilos implements ThreadFactory {
+        private final AtomicInteger contador = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread hilo = new Thread(r, "sse-puntos-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.donaciones.donacionesbackend.service;
+
+import com.donaciones.donacionesbackend.dto.ItemTransicion;
+import com.donaciones.donacionesbackend.dto.ResultadoTransicion;
+import com.donaciones.donacionesbackend.entity.Donacion;
+import com.donaciones.donacionesbackend.entity.EstadoDonacion;
+import com.donaciones.donacionesbackend.event.DonacionesCambiadasEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * cambios de estado de donaciones, de a una o en lote ("marcar estas 500 como CLASIFICADA")
+ * solo se permiten las transiciones de EstadoDonacion.puedePasarA y cada cambio es condicional:
+ * el UPDATE lleva en el WHERE la versión y el estado que se leyeron, así si el punto y el admin
+ * cambian la misma donación a la vez uno gana y el otro se entera (conflicto) en vez de pisarlo.
+ * Todo el lote es un SELECT con todos los ids y un solo batch de UPDATE en una transacción;
+ * las filas que el batch no actualizó son las que perdieron la carrera
+ */
+@Service
+public class TransicionDonacionesService {
+
+    public static final String NO_ENCONTRADA = "donación no encontrada";
+
+    private static final String LEER = "SELECT id, punto_donacion_id, tipo_donacion, cantidad, estado, " +
+        "fecha_donacion, version FROM donaciones WHERE id IN (%s)";
+
+    private static final String CAMBIAR = "UPDATE donaciones SET estado = ?, version = version + 1 " +
+        "WHERE id = ? AND version = ? AND estado = ?";
+
+    // Al entregarla queda registrada la fecha (si el punto no la había cargado)
+    private static final String ENTREGAR = "UPDATE donaciones SET estado = ?, version = version + 1, " +
+        "fecha_entrega = COALESCE(fecha_entrega, ?) WHERE id = ? AND version = ? AND estado = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EstadisticasDonacionesService estadisticasDonacionesService;
+
+    // Aviso a los contadores en memoria (se aplica después del commit)
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /** cambia una sola donación; version es la que vio el que pide el cambio (puede ser null) */
+    @Transactional
+    public ResultadoTransicion cambiar(Long id, EstadoDonacion destino, Long version) {
+        return aplicarLote(destino, List.of(new ItemTransicion(id, version))).get(0);
+    }
+
+    /**
+     * pasa todas las donaciones del lote a destino y devuelve un resultado por ítem, en el mismo orden
+     * las que no existen, no pueden pasar a ese estado o cambiaron en el medio no frenan al resto
+     */
+    @Transactional
+    public List<ResultadoTransicion> aplicarLote(EstadoDonacion destino, List<ItemTransicion> items) {
+        // Un id repetido es un error del cliente: no sé cuál de las versiones vale
+        Set<Long> ids = new HashSet<>();
+        Set<Long> repetidos = new HashSet<>();
+        for (ItemTransicion item : items) {
+            if (item != null && item.id() != null && !ids.add(item.id())) {
+                repetidos.add(item.id());
+            }
+        }
+        ids.removeAll(repetidos);
+        Map<Long, Donacion> actuales = leer(ids);
+
+        ResultadoTransicion[] resultados = new ResultadoTransicion[items.size()];
+        List<Integer> posiciones = new ArrayList<>();
+        List<Object[]> parametros = new ArrayList<>();
+        LocalDateTime ahora = LocalDateTime.now();
+        for (int i = 0; i < items.size(); i++) {
+            ItemTransicion item = items.get(i);
+            Long id = item != null ? item.id() : null;
+            Donacion actual = id != null ? actuales.get(id) : null;
+            if (id == null) {
+                resultados[i] = ResultadoTransicion.fallido(null, "id requerido");
+            } else if (repetidos.contains(id)) {
+                resultados[i] = ResultadoTransicion.fallido(id, "id repetido en el lote");
+            } else if (actual == null) {
+                resultados[i] = ResultadoTransicion.fallido(id, NO_ENCONTRADA);
+            } else if (item.version() != null && !item.version().equals(actual.getVersion())) {
+                resultados[i] = ResultadoTransicion.conflicto(id,
+                    "la donación cambió (versión " + actual.getVersion() + "), volver a leerla");
+            } else if (actual.getEstado() == null || !actual.getEstado().puedePasarA(destino)) {
+                resultados[i] = ResultadoTransicion.fallido(id,
+                    "no se puede pasar de " + actual.getEstado() + " a " + destino);
+            } else {
+                posiciones.add(i);
+            }
+        }
+        if (posiciones.isEmpty()) {
+            return List.of(resultados);
+        }
+
+        // En orden de id: dos lotes con las mismas donaciones bloquean las filas en el mismo orden (sin deadlock)
+        posiciones.sort(Comparator.comparing(i -> items.get(i).id()));
+        for (int i : posiciones) {
+            Donacion actual = actuales.get(items.get(i).id());
+            parametros.add(destino == EstadoDonacion.ENTREGADA
+                ? new Object[] { destino.name(), Timestamp.valueOf(ahora), actual.getId(), actual.getVersion(), actual.getEstado().name() }
+                : new Object[] { destino.name(), actual.getId(), actual.getVersion(), actual.getEstado().name() });
+        }
+
+        int[] filas = jdbcTemplate.batchUpdate(destino == EstadoDonacion.ENTREGADA ? ENTREGAR : CAMBIAR, parametros);
+
+        List<Donacion> cambiadas = new ArrayList<>();
+        Map<Long, EstadoDonacion> anteriores = new HashMap<>();
+        for (int j = 0; j < posiciones.size(); j++) {
+            int i = posiciones.get(j);
+            Donacion donacion = actuales.get(items.get(i).id());
+            if (filas[j] == 0) {
+                // Entre el SELECT y el UPDATE otro cambio la modificó
+                resultados[i] = ResultadoTransicion.conflicto(donacion.getId(), "otro cambio la modificó antes");
+                continue;
+            }
+            anteriores.put(donacion.getId(), donacion.getEstado());
+            donacion.setEstado(destino);
+            donacion.setVersion(donacion.getVersion() + 1);
+            cambiadas.add(donacion);
+            resultados[i] = ResultadoTransicion.aplicado(donacion.getId(), destino, donacion.getVersion());
+        }
+
+        estadisticasDonacionesService.estadosCambiados(cambiadas, anteriores);
+        eventPublisher.publishEvent(DonacionesCambiadasEvent.estadosCambiados(cambiadas, anteriores));
+        return List.of(resultados);
+    }
+
+    // Un solo SELECT para todo el lote, solo con las columnas que usan las transiciones y los totales
+    private Map<Long, Donacion> leer(Set<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Donacion> donaciones = new HashMap<>();
+        String sql = String.format(LEER, String.join(", ", Collections.nCopies(ids.size(), "?")));
+        jdbcTemplate.query(sql, rs -> {
+            Donacion donacion = new Donacion();
+            donacion.setId(rs.getLong("id"));
+            donacion.setPuntoDonacionId(rs.getLong("punto_donacion_id"));
+            donacion.setTipoDonacion(rs.getString("tipo_donacion"));
+            donacion.setCantidad(rs.getInt("cantidad"));
+            donacion.setEstado(EstadoDonacion.desde(rs.getString("estado")));
+            Timestamp fecha = rs.getTimestamp("fecha_donacion");
+            donacion.setFechaDonacion(fecha != null ? fecha.toLocalDateTime() : null);
+            donacion.setVersion(rs.getLong("version"));
+            donaciones.put(donacion.getId(), donacion);
+        }, ids.toArray());
+        return donaciones;
+    }
+}
@@ -0,0 +1,156 @@
+package com.donaciones.donacionesbackend.service;
+
+import com.donaciones.donacionesbackend.dto.ClusterPuntos;
+import com.donaciones.donacionesbackend.dto.ViewportRespuesta;
+import com.donaciones.donacionesbackend.entity.PuntoDonacion;
+import com.donaciones.donacionesbackend.entity.TipoDonacion;
+import com.donaciones.donacionesbackend.util.TiposDonacion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * arma lo que el mapa necesita para la zona visible
+ * con zoom alto devuelve los puntos tal cual; con zoom bajo los agrupa en una grilla
+ * cuyo tamaño depende del zoom. Los agregados de cada zoom se calculan una vez sobre
+ * todos los puntos del índice espacial y se reusan hasta que el índice cambie
+ */
+@Service
+public class ViewportService {
+
+    private static final int ZOOM_MAXIMO = 22;
+
+    @Autowired
+    private IndiceEspacialService indiceEspacialService;
+
+    // Desde este zoom en adelante ya no agrupo
+    @Value("${app.viewport.zoom-puntos-individuales:13}")
+    private int zoomPuntosIndividuales;
+
+    // Tamaño aproximado de cada cluster en píxeles de pantalla (un tile mide 256)
+    @Value("${app.viewport.tamano-cluster-px:64}")
+    private int tamanoClusterPx;
+
+    // zoom -> grupos ya calculados para esa escala
+    private final Map<Integer, AgregadoZoom> agregadosPorZoom = new ConcurrentHashMap<>();
+
+    /**
+     * puntos o clusters dentro del rectángulo visible
+     * si minLng > maxLng el mapa cruza el antimeridiano y consulto los dos lados
+     */
+    public ViewportRespuesta consultar(double minLat, double minLng, double maxLat, double maxLng, int zoom) {
+        int zoomNormalizado = Math.max(0, Math.min(ZOOM_MAXIMO, zoom));
+        List<double[]> rectangulos = new ArrayList<>();
+        if (minLng <= maxLng) {
+            rectangulos.add(new double[] {minLat, minLng, maxLat, maxLng});
+        } else {
+            rectangulos.add(new double[] {minLat, minLng, maxLat, 180});
+            rectangulos.add(new double[] {minLat, -180, maxLat, maxLng});
+        }
+
+        if (zoomNormalizado >= zoomPuntosIndividuales) {
+            List<PuntoDonacion> puntos = new ArrayList<>();
+            for (double[] r : rectangulos) {
+                puntos.addAll(indiceEspacialService.buscarEnRectangulo(r[0], r[1], r[2], r[3]));
+            }
+            return new ViewportRespuesta(zoomNormalizado, false, puntos, Collections.emptyList());
+        }
+
+        List<PuntoDonacion> sueltos = new ArrayList<>();
+        List<ClusterPuntos> clusters = new ArrayList<>();
+        for (Grupo grupo : obtenerAgregado(zoomNormalizado).grupos()) {
+            ClusterPuntos cluster = grupo.cluster();
+            boolean visible = false;
+            for (double[] r : rectangulos) {
+                if (cluster.latitud() >= r[0] && cluster.latitud() <= r[2]
+                        && cluster.longitud() >= r[1] && cluster.longitud() <= r[3]) {
+                    visible = true;
+                    break;
+                }
+            }
+            if (!visible) {
+                continue;
+            }
+            // Un cluster de un solo punto no tiene sentido: mando el punto
+            if (grupo.unico() != null) {
+                sueltos.add(grupo.unico());
+            } else {
+                clusters.add(cluster);
+            }
+        }
+        return new ViewportRespuesta(zoomNormalizado, true, sueltos, clusters);
+    }
+
+    // Devuelve los grupos del zoom pedido, recalculándolos si el índice cambió
+    private AgregadoZoom obtenerAgregado(int zoom) {
+        long versionActual = indiceEspacialService.getVersion();
+        AgregadoZoom agregado = agregadosPorZoom.get(zoom);
+        if (agregado != null && agregado.version() == versionActual) {
+            return agregado;
+        }
+        agregado = new AgregadoZoom(versionActual, agrupar(indiceEspacialService.todosLosPuntos(), zoom));
+        agregadosPorZoom.put(zoom, agregado);
+        return agregado;
+    }
+
+    private List<Grupo> agrupar(List<PuntoDonacion> puntos, int zoom) {
+        double celdaGrados = 360.0 / (1L << zoom) * tamanoClusterPx / 256.0;
+        Map<Long, Acumulador> acumuladores = new HashMap<>();
+        for (PuntoDonacion punto : puntos) {
+            int fila = (int) Math.floor(punto.getLatitud() / celdaGrados);
+            int col = (int) Math.floor(punto.getLongitud() / celdaGrados);
+            long clave = ((long) fila << 32) | (col & 0xffffffffL);
+            acumuladores.computeIfAbsent(clave, k -> new Acumulador()).sumar(punto);
+        }
+
+        List<Grupo> grupos = new ArrayList<>(acumuladores.size());
+        for (Acumulador acumulador : acumuladores.values()) {
+            grupos.add(acumulador.cerrar());
+        }
+        return grupos;
+    }
+
+    // Va sumando coordenadas y tipos de los puntos que caen en una celda
+    private static class Acumulador {
+        private double sumaLat;
+        private double sumaLng;
+        private int cantidad;
+        private PuntoDonacion primero;
+        private final Map<TipoDonacion, Integer> tipos = new EnumMap<>(TipoDonacion.class);
+
+        void sumar(PuntoDonacion punto) {
+            sumaLat += punto.getLatitud();
+            sumaLng += punto.getLongitud();
+            if (cantidad == 0) {
+                primero = punto;
+            }
+            cantidad++;
+            // Uso la máscara ya calculada; los puntos viejos sin máscara los parseo
+            EnumSet<TipoDonacion> tiposPunto = punto.getTiposMask() != null
+                ? TiposDonacion.desdeMascara(punto.getTiposMask())
+                : TiposDonacion.parsear(punto.getTipoDonacion());
+            for (TipoDonacion tipo : tiposPunto) {
+                tipos.merge(tipo, 1, Integer::sum);
+            }
+        }
+
+        Grupo cerrar() {
+            ClusterPuntos cluster = new ClusterPuntos(sumaLat / cantidad, sumaLng / cantidad, cantidad,
+                Collections.unmodifiableMap(tipos));
+            return new Grupo(cluster, cantidad == 1 ? primero : null);
+        }
+    }
+
+    private record Grupo(ClusterPuntos cluster, PuntoDonacion unico) {}
+
+    private record AgregadoZoom(long version, List<Grupo> grupos) {}
+}
@@ -0,0 +1,39 @@
+package com.donaciones.donacionesbackend.util;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * escribe filas CSV (separadas por coma, RFC 4180) directo en un Writer
+ * va de la mano con LectorCsv: lo que exporta uno lo puede leer el otro
+ */
+public class EscritorCsv {
+
+    private EscritorCsv() {}
+
+    /** una fila terminada en \r\n; null se escribe como campo vacío */
+    public static void fila(Writer writer, Object... campos) throws IOException {
+        for (int i = 0; i < campos.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (campos[i] != null) {
+                writer.write(escapar(campos[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    // Solo pongo comillas si hacen falta (coma, comillas o salto de línea)
+    static String escapar(String valor) {
+        boolean necesitaComillas = false;
+        for (int i = 0; i < valor.length() && !necesitaComillas; i++) {
+            char c = valor.charAt(i);
+            necesitaComillas = c == ',' || c == '"' || c == '\n' || c == '\r' || c == ';';
+        }
+        if (!necesitaComillas) {
+            return valor;
+        }
+        return "\"" + valor.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,35 @@
+package com.donaciones.donacionesbackend.util;
+
+import com.donaciones.donacionesbackend.entity.PuntoDonacion;
+
+import java.time.LocalTime;
+
+/**
+ * chequeo de horario de atención de los puntos
+ * contempla horarios que cruzan la medianoche, por ejemplo de 20:00 a 02:00
+ */
+public class HorarioPuntos {
+
+    private HorarioPuntos() {}
+
+    /**
+     * true si el punto está abierto a esa hora
+     * sin horario cargado no puedo asegurarlo, así que lo tomo como cerrado;
+     * apertura igual a cierre lo tomo como abierto las 24 horas
+     */
+    public static boolean estaAbierto(PuntoDonacion punto, LocalTime hora) {
+        LocalTime apertura = punto.getHorarioApertura();
+        LocalTime cierre = punto.getHorarioCierre();
+        if (apertura == null || cierre == null) {
+            return false;
+        }
+        if (apertura.equals(cierre)) {
+            return true;
+        }
+        if (apertura.isBefore(cierre)) {
+            return !hora.isBefore(apertura) && hora.isBefore(cierre);
+        }
+        // Cruza la medianoche: abierto desde la apertura hasta las 24 y desde las 0 hasta el cierre
+        return !hora.isBefore(apertura) || hora.isBefore(cierre);
+    }
+}
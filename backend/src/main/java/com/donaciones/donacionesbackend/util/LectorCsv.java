@@ -0,0 +1,132 @@
+package com.donaciones.donacionesbackend.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * lector de CSV que va fila por fila sobre un Reader, sin cargar el archivo entero
+ * respeta comillas (campos con separador, saltos de línea o "" adentro)
+ * el separador se detecta en la primera línea: coma, o punto y coma como exporta Excel en español
+ */
+public class LectorCsv {
+
+    // Cuánto miro por adelantado para adivinar el separador
+    private static final int LIMITE_DETECCION = 64 * 1024;
+
+    // Largo máximo de un campo; más que esto casi seguro es una comilla sin cerrar que se come el resto del archivo
+    public static final int LARGO_MAXIMO_CAMPO = 64 * 1024;
+
+    private final BufferedReader reader;
+    private final char separador;
+    private long linea = 0;
+
+    public LectorCsv(Reader reader) throws IOException {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        this.separador = detectarSeparador(this.reader);
+    }
+
+    /** número de línea del archivo donde terminó la última fila leída (para reportar errores) */
+    public long getLinea() {
+        return linea;
+    }
+
+    /**
+     * próxima fila con sus campos, o null al llegar al final
+     * lanza CampoDemasiadoLargoException si un campo pasa LARGO_MAXIMO_CAMPO (después de eso no se puede seguir leyendo)
+     */
+    public List<String> siguienteFila() throws IOException {
+        long lineaInicio = linea + 1;
+        List<String> campos = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        boolean leyoAlgo = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            leyoAlgo = true;
+            char ch = (char) c;
+            if (entreComillas) {
+                if (ch == '"') {
+                    reader.mark(1);
+                    int siguiente = reader.read();
+                    if (siguiente == '"') {
+                        actual.append('"'); // comilla escapada
+                    } else {
+                        entreComillas = false;
+                        if (siguiente != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    if (ch == '\n') {
+                        linea++;
+                    }
+                    actual.append(ch);
+                    if (actual.length() > LARGO_MAXIMO_CAMPO) {
+                        throw new CampoDemasiadoLargoException(lineaInicio);
+                    }
+                }
+            } else if (ch == '"') {
+                entreComillas = true;
+            } else if (ch == separador) {
+                campos.add(actual.toString());
+                actual.setLength(0);
+            } else if (ch == '\n') {
+                linea++;
+                campos.add(actual.toString());
+                return campos;
+            } else if (ch != '\r') {
+                actual.append(ch);
+                if (actual.length() > LARGO_MAXIMO_CAMPO) {
+                    throw new CampoDemasiadoLargoException(lineaInicio);
+                }
+            }
+        }
+        if (!leyoAlgo) {
+            return null;
+        }
+        linea++;
+        campos.add(actual.toString());
+        return campos;
+    }
+
+    // Cuento comas y punto y comas de la primera línea, fuera de comillas, y vuelvo al principio
+    private static char detectarSeparador(BufferedReader reader) throws IOException {
+        reader.mark(LIMITE_DETECCION);
+        int comas = 0;
+        int puntoYComas = 0;
+        boolean entreComillas = false;
+        int c;
+        int leidos = 0;
+        while ((c = reader.read()) != -1 && leidos++ < LIMITE_DETECCION - 1) {
+            if (c == '"') {
+                entreComillas = !entreComillas;
+            } else if (!entreComillas && c == '\n') {
+                break;
+            } else if (!entreComillas && c == ',') {
+                comas++;
+            } else if (!entreComillas && c == ';') {
+                puntoYComas++;
+            }
+        }
+        reader.reset();
+        return puntoYComas > comas ? ';' : ',';
+    }
+
+    /** un campo de la fila que empieza en linea pasó el largo máximo (seguramente una comilla sin cerrar) */
+    public static class CampoDemasiadoLargoException extends IOException {
+        private final long linea;
+
+        public CampoDemasiadoLargoException(long linea) {
+            super("campo de más de " + LARGO_MAXIMO_CAMPO + " caracteres en la fila de la línea " + linea
+                + " (¿comillas sin cerrar?)");
+            this.linea = linea;
+        }
+
+        public long getLinea() {
+            return linea;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.donaciones.donacionesbackend.util;
+
+import com.donaciones.donacionesbackend.dto.PuntoCrearRequest;
+import com.donaciones.donacionesbackend.dto.PuntoPatch;
+import com.donaciones.donacionesbackend.entity.EstadoPunto;
+import com.donaciones.donacionesbackend.entity.PuntoDonacion;
+import com.donaciones.donacionesbackend.entity.Rol;
+
+/**
+ * pasa los pedidos tipados a la entidad con llamadas directas a los setters
+ * (lo mismo que generaría MapStruct): sin reflexión, sin Map intermedio ni casteos
+ */
+public class MapeoPuntos {
+
+    private MapeoPuntos() {}
+
+    /** punto nuevo a partir del alta; las organizaciones quedan PENDIENTES, el resto ACTIVO */
+    public static PuntoDonacion nuevoPunto(PuntoCrearRequest pedido) {
+        PuntoDonacion punto = new PuntoDonacion();
+        punto.setNombre(pedido.nombre());
+        punto.setDireccion(pedido.direccion());
+        punto.setLatitud(pedido.latitud());
+        punto.setLongitud(pedido.longitud());
+        punto.setTipoDonacion(pedido.tipoDonacion());
+        punto.setTelefono(pedido.telefono());
+        punto.setEmail(pedido.email());
+        punto.setHorarioApertura(pedido.horarioApertura());
+        punto.setHorarioCierre(pedido.horarioCierre());
+        punto.setActivo(true); // Por defecto todos los puntos nuevos están activos
+
+        // Sin datos del creador asumo que es un admin
+        if (pedido.usuarioCreadorId() != null && pedido.tipoCreador() != null) {
+            punto.setUsuarioCreadorId(pedido.usuarioCreadorId());
+            punto.setTipoCreador(pedido.tipoCreador());
+        }
+        punto.setEstado(pedido.tipoCreador() == Rol.ORGANIZACION && pedido.usuarioCreadorId() != null
+            ? EstadoPunto.PENDIENTE
+            : EstadoPunto.ACTIVO);
+        return punto;
+    }
+
+    /**
+     * aplica el merge patch sobre el punto; tira IllegalArgumentException si intenta
+     * borrar (mandar null) un campo obligatorio
+     */
+    public static void aplicar(PuntoPatch patch, PuntoDonacion punto) {
+        if (patch.trae("nombre")) {
+            punto.setNombre(obligatorio(patch.getNombre(), "nombre"));
+        }
+        if (patch.trae("direccion")) {
+            punto.setDireccion(obligatorio(patch.getDireccion(), "direccion"));
+        }
+        if (patch.trae("latitud")) {
+            punto.setLatitud(obligatorio(patch.getLatitud(), "latitud"));
+        }
+        if (patch.trae("longitud")) {
+            punto.setLongitud(obligatorio(patch.getLongitud(), "longitud"));
+        }
+        if (patch.trae("tipoDonacion")) {
+            punto.setTipoDonacion(obligatorio(patch.getTipoDonacion(), "tipoDonacion"));
+        }
+        if (patch.trae("telefono")) {
+            punto.setTelefono(patch.getTelefono());
+        }
+        if (patch.trae("email")) {
+            punto.setEmail(patch.getEmail());
+        }
+        if (patch.trae("horarioApertura")) {
+            punto.setHorarioApertura(patch.getHorarioApertura());
+        }
+        if (patch.trae("horarioCierre")) {
+            punto.setHorarioCierre(patch.getHorarioCierre());
+        }
+        if (patch.trae("activo")) {
+            punto.setActivo(obligatorio(patch.getActivo(), "activo"));
+        }
+
+        // Si una organización edita su punto rechazado, vuelve a PENDIENTE para que el admin lo revise
+        if (punto.getTipoCreador() == Rol.ORGANIZACION
+            && punto.getEstado() == EstadoPunto.RECHAZADO
+            && patch.cantidadCampos() > 1) { // más campos además de activo
+            punto.setEstado(EstadoPunto.PENDIENTE);
+            punto.setMotivoRechazo(null);
+        }
+    }
+
+    private static <T> T obligatorio(T valor, String campo) {
+        if (valor == null || (valor instanceof String texto && texto.isBlank())) {
+            throw new IllegalArgumentException(campo + " no puede quedar vacío");
+        }
+        return valor;
+    }
+}
@@ -0,0 +1,139 @@
+package com.donaciones.donacionesbackend.util;
+
+import com.donaciones.donacionesbackend.dto.PaginaRespuesta;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * paginación por cursor (keyset) para los listados de puntos (y el historial de donaciones)
+ * en vez de OFFSET, cada página sigue desde los valores de orden del último punto que se mandó
+ * (WHERE (orden, id) > (...)), así la página 100 cuesta lo mismo que la primera.
+ * El cursor viaja como token opaco: JSON en base64 con el orden y esos valores
+ */
+public class PaginacionPuntos {
+
+    /** campos por los que se puede ordenar; siempre desempato por id */
+    public static final Set<String> ORDENES = Set.of("fechaCreacion", "id", "nombre");
+
+    /** órdenes del historial de donaciones: los que cubre el índice (estado, fecha_donacion, id) */
+    public static final Set<String> ORDENES_DONACIONES = Set.of("fechaDonacion", "id");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private PaginacionPuntos() {}
+
+    /** lo que necesita el repositorio para traer una página */
+    public record Pedido(ScrollPosition posicion, Sort sort, Limit limite, String orden, boolean desc) {}
+
+    /**
+     * arma el pedido a partir de los parámetros; si viene cursor, el orden sale del cursor
+     * lanza IllegalArgumentException si el orden o el cursor no son válidos
+     */
+    public static Pedido leer(String cursor, String orden, boolean desc, int tamano, int tamanoMaximo) {
+        return leer(cursor, orden, desc, tamano, tamanoMaximo, ORDENES);
+    }
+
+    /** igual que el anterior pero con otros órdenes permitidos (ej. ORDENES_DONACIONES) */
+    public static Pedido leer(String cursor, String orden, boolean desc, int tamano, int tamanoMaximo,
+                              Set<String> ordenes) {
+        if (tamano < 1) {
+            throw new IllegalArgumentException("tamano tiene que ser mayor a 0");
+        }
+        int limite = Math.min(tamano, tamanoMaximo);
+        if (cursor == null || cursor.isBlank()) {
+            if (!ordenes.contains(orden)) {
+                throw new IllegalArgumentException("orden inválido: " + orden);
+            }
+            return new Pedido(ScrollPosition.keyset(), armarSort(orden, desc), Limit.of(limite), orden, desc);
+        }
+
+        Token token;
+        Map<String, Object> claves = new LinkedHashMap<>();
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(cursor);
+            token = MAPPER.readValue(new String(json, StandardCharsets.UTF_8), Token.class);
+            for (Map.Entry<String, String> entrada : token.k().entrySet()) {
+                claves.put(entrada.getKey(), convertir(entrada.getKey(), entrada.getValue()));
+            }
+        } catch (Exception e) {
+            throw new IllegalArgumentException("cursor inválido");
+        }
+        // Tiene que traer exactamente las claves del orden (orden + id); si falta una, Spring Data
+        // recién se da cuenta al armar la consulta y eso terminaba en un 500
+        if (token.o() == null || !ordenes.contains(token.o()) || !claves.keySet().equals(clavesDeOrden(token.o()))) {
+            throw new IllegalArgumentException("cursor inválido");
+        }
+        return new Pedido(ScrollPosition.forward(claves), armarSort(token.o(), token.d()),
+            Limit.of(limite), token.o(), token.d());
+    }
+
+    /** convierte la ventana del repositorio en la página que ve el cliente, con el cursor siguiente */
+    public static <E, T> PaginaRespuesta<T> armar(Window<E> ventana, Pedido pedido, Function<E, T> convertir) {
+        List<T> items = new ArrayList<>(ventana.size());
+        for (E elemento : ventana) {
+            items.add(convertir.apply(elemento));
+        }
+        String siguiente = null;
+        if (ventana.hasNext() && !ventana.isEmpty()) {
+            KeysetScrollPosition posicion = (KeysetScrollPosition) ventana.positionAt(ventana.size() - 1);
+            Map<String, String> claves = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> entrada : posicion.getKeys().entrySet()) {
+                claves.put(entrada.getKey(), entrada.getValue() != null ? entrada.getValue().toString() : null);
+            }
+            try {
+                byte[] json = MAPPER.writeValueAsBytes(new Token(pedido.orden(), pedido.desc(), claves));
+                siguiente = Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+            } catch (Exception e) {
+                throw new IllegalStateException("No se pudo armar el cursor", e);
+            }
+        }
+        return new PaginaRespuesta<>(items, siguiente, siguiente != null);
+    }
+
+    private static Sort armarSort(String orden, boolean desc) {
+        Sort.Direction direccion = desc ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = Sort.by(direccion, orden);
+        return orden.equals("id") ? sort : sort.and(Sort.by(direccion, "id"));
+    }
+
+    // Claves que arma Spring Data para el orden: el campo y el id de desempate (solo id si se ordena por id)
+    private static Set<String> clavesDeOrden(String orden) {
+        return orden.equals("id") ? Set.of("id") : Set.of(orden, "id");
+    }
+
+    // En el token todo viaja como texto; acá recupero el tipo de cada campo de orden
+    // Las columnas de orden son NOT NULL (MigracionClavesCursorService): una clave nula no puede salir de una página
+    private static Object convertir(String campo, String valor) {
+        if (valor == null) {
+            throw new IllegalArgumentException("clave de cursor nula: " + campo);
+        }
+        switch (campo) {
+            case "id":
+                return Long.valueOf(valor);
+            case "fechaCreacion":
+            case "fechaDonacion":
+                return LocalDateTime.parse(valor);
+            case "nombre":
+                return valor;
+            default:
+                throw new IllegalArgumentException("campo de cursor inválido: " + campo);
+        }
+    }
+
+    // o = orden, d = descendente, k = valores de las claves del último elemento
+    private record Token(String o, boolean d, Map<String, String> k) {}
+}
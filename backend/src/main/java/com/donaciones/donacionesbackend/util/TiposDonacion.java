@@ -0,0 +1,87 @@
+package com.donaciones.donacionesbackend.util;
+
+import com.donaciones.donacionesbackend.entity.TipoDonacion;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * lee el campo tipoDonacion de los puntos, que el frontend guarda como JSON ["ropa","papel"]
+ * o como texto simple en los puntos viejos, y lo pasa a un conjunto de TipoDonacion
+ * también lo codifica como máscara de bits: cada tipo ocupa el bit de su ordinal (ROPA = 1, VIDRIO = 2, ...)
+ */
+public class TiposDonacion {
+
+    private TiposDonacion() {}
+
+    /** tipos válidos que aparecen en el texto; ignora los que no existen en el enum */
+    public static EnumSet<TipoDonacion> parsear(String tipoDonacion) {
+        EnumSet<TipoDonacion> tipos = EnumSet.noneOf(TipoDonacion.class);
+        if (tipoDonacion == null || tipoDonacion.isBlank()) {
+            return tipos;
+        }
+        // No necesito un parser JSON completo: saco corchetes y comillas y separo por coma
+        String limpio = tipoDonacion.replace("[", "").replace("]", "").replace("\"", "");
+        for (String parte : limpio.split(",")) {
+            String nombre = parte.trim().toUpperCase(Locale.ROOT);
+            if (nombre.isEmpty()) {
+                continue;
+            }
+            try {
+                tipos.add(TipoDonacion.valueOf(nombre));
+            } catch (IllegalArgumentException e) {
+                // tipo desconocido, lo ignoro
+            }
+        }
+        return tipos;
+    }
+
+    /** máscara de bits con los tipos del texto; 0 si no tiene ninguno válido */
+    public static int mascara(String tipoDonacion) {
+        return mascara(parsear(tipoDonacion));
+    }
+
+    public static int mascara(Collection<TipoDonacion> tipos) {
+        int mascara = 0;
+        for (TipoDonacion tipo : tipos) {
+            mascara |= bit(tipo);
+        }
+        return mascara;
+    }
+
+    public static int bit(TipoDonacion tipo) {
+        return 1 << tipo.ordinal();
+    }
+
+    /** tipos que tienen su bit prendido en la máscara */
+    public static EnumSet<TipoDonacion> desdeMascara(int mascara) {
+        EnumSet<TipoDonacion> tipos = EnumSet.noneOf(TipoDonacion.class);
+        for (TipoDonacion tipo : TipoDonacion.values()) {
+            if ((mascara & bit(tipo)) != 0) {
+                tipos.add(tipo);
+            }
+        }
+        return tipos;
+    }
+
+    /**
+     * todas las máscaras posibles que cumplen el filtro
+     * como hay pocos tipos, enumero los valores y el filtro queda como tipos_mask IN (...),
+     * que MySQL resuelve con el índice en vez de evaluar una operación de bits fila por fila
+     * todos = true pide que el punto acepte todos los tipos; false, que acepte alguno
+     */
+    public static List<Integer> mascarasQueCoinciden(int filtro, boolean todos) {
+        int maxima = (1 << TipoDonacion.values().length) - 1;
+        List<Integer> mascaras = new ArrayList<>();
+        for (int m = 1; m <= maxima; m++) {
+            boolean coincide = todos ? (m & filtro) == filtro : (m & filtro) != 0;
+            if (coincide) {
+                mascaras.add(m);
+            }
+        }
+        return mascaras;
+    }
+}
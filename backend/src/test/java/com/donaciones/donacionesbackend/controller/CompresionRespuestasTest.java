@@ -0,0 +1,175 @@
+package com.donaciones.donacionesbackend.controller;
+
+import com.donaciones.donacionesbackend.entity.EstadoPunto;
+import com.donaciones.donacionesbackend.entity.Favorito;
+import com.donaciones.donacionesbackend.entity.PuntoDonacion;
+import com.donaciones.donacionesbackend.event.PuntoDonacionCambiadoEvent;
+import com.donaciones.donacionesbackend.repository.FavoritoRepository;
+import com.donaciones.donacionesbackend.repository.PuntoDonacionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * compresión de las respuestas contra el Tomcat real (la compresión de Tomcat no pasa por MockMvc):
+ * la lista pública y /pines salen del gzip ya armado del snapshot, con su propio ETag -gz,
+ * y las otras respuestas JSON las comprime Tomcat solo desde el umbral de 2KB
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class CompresionRespuestasTest {
+
+    private static final String USUARIO = "7";
+
+    @LocalServerPort
+    private int puerto;
+
+    @Autowired
+    private PuntoDonacionRepository puntoDonacionRepository;
+
+    @Autowired
+    private FavoritoRepository favoritoRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // El cliente del JDK no pide ni descomprime gzip por su cuenta: se ve lo que manda el servidor
+    private final HttpClient cliente = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void limpiar() {
+        favoritoRepository.deleteAllInBatch();
+        puntoDonacionRepository.deleteAllInBatch();
+    }
+
+    @AfterEach
+    void limpiarFavoritos() {
+        favoritoRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void snapshotConGzipUsaElComprimidoYSuEtag() throws Exception {
+        crearPuntos(40, EstadoPunto.ACTIVO);
+        for (String url : List.of("/puntos-donacion", "/puntos-donacion/pines")) {
+            HttpResponse<byte[]> plano = pedir(url, null, null);
+            HttpResponse<byte[]> comprimido = pedir(url, "gzip, deflate, br", null);
+
+            assertThat(comprimido.statusCode()).isEqualTo(200);
+            assertThat(comprimido.headers().firstValue("Content-Encoding")).hasValue("gzip");
+            assertThat(comprimido.headers().firstValue("ETag")).hasValueSatisfying(etag -> assertThat(etag).endsWith("-gz\""));
+            assertThat(comprimido.headers().allValues("Vary").toString()).contains("Accept-Encoding");
+            assertThat(descomprimir(comprimido.body())).isEqualTo(plano.body());
+        }
+    }
+
+    @Test
+    void sinGzipOConQCeroVaElJsonPlano() throws Exception {
+        crearPuntos(40, EstadoPunto.ACTIVO);
+        for (String acceptEncoding : new String[] {null, "identity", "gzip;q=0", "gzip; q=0.0, identity"}) {
+            HttpResponse<byte[]> respuesta = pedir("/puntos-donacion/pines", acceptEncoding, null);
+
+            assertThat(respuesta.statusCode()).isEqualTo(200);
+            assertThat(respuesta.headers().firstValue("Content-Encoding")).isEmpty();
+            assertThat(respuesta.headers().firstValue("ETag")).hasValueSatisfying(etag -> assertThat(etag).doesNotEndWith("-gz\""));
+            assertThat(new String(respuesta.body())).startsWith("[");
+        }
+    }
+
+    @Test
+    void cualquieraDeLosDosEtagDevuelve304() throws Exception {
+        crearPuntos(40, EstadoPunto.ACTIVO);
+        String etag = pedir("/puntos-donacion/pines", null, null).headers().firstValue("ETag").orElseThrow();
+        String etagGzip = pedir("/puntos-donacion/pines", "gzip", null).headers().firstValue("ETag").orElseThrow();
+        assertThat(etagGzip).isNotEqualTo(etag);
+
+        // El navegador puede mandar el ETag de una variante y pedir la otra (o las dos juntas)
+        for (String ifNoneMatch : List.of(etag, etagGzip, etag + ", " + etagGzip)) {
+            for (String acceptEncoding : new String[] {null, "gzip"}) {
+                HttpResponse<byte[]> respuesta = pedir("/puntos-donacion/pines", acceptEncoding, ifNoneMatch);
+                assertThat(respuesta.statusCode()).isEqualTo(304);
+                assertThat(respuesta.body()).isEmpty();
+            }
+        }
+    }
+
+    @Test
+    void tomcatComprimePendientesDesdeElUmbral() throws Exception {
+        crearPuntos(1, EstadoPunto.PENDIENTE);
+        HttpResponse<byte[]> chica = pedir("/puntos-donacion/pendientes", "gzip", null);
+        assertThat(chica.body().length).isLessThan(2048);
+        assertThat(chica.headers().firstValue("Content-Encoding")).isEmpty();
+
+        crearPuntos(40, EstadoPunto.PENDIENTE);
+        HttpResponse<byte[]> grande = pedir("/puntos-donacion/pendientes", "gzip", null);
+        assertThat(grande.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        assertThat(new String(descomprimir(grande.body()))).startsWith("[");
+    }
+
+    @Test
+    void tomcatComprimeFavoritosDesdeElUmbral() throws Exception {
+        List<PuntoDonacion> puntos = crearPuntos(30, EstadoPunto.ACTIVO);
+        favoritoRepository.save(new Favorito(Long.valueOf(USUARIO), puntos.get(0).getId()));
+        HttpResponse<byte[]> chica = pedir("/favoritos/usuario/" + USUARIO, "gzip", null);
+        assertThat(chica.body().length).isLessThan(2048);
+        assertThat(chica.headers().firstValue("Content-Encoding")).isEmpty();
+
+        for (PuntoDonacion punto : puntos.subList(1, puntos.size())) {
+            favoritoRepository.save(new Favorito(Long.valueOf(USUARIO), punto.getId()));
+        }
+        HttpResponse<byte[]> grande = pedir("/favoritos/usuario/" + USUARIO, "gzip", null);
+        assertThat(grande.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        assertThat(new String(descomprimir(grande.body()))).startsWith("[");
+    }
+
+    private HttpResponse<byte[]> pedir(String url, String acceptEncoding, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder pedido = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + "/api" + url));
+        if (acceptEncoding != null) {
+            pedido.header("Accept-Encoding", acceptEncoding);
+        }
+        if (ifNoneMatch != null) {
+            pedido.header("If-None-Match", ifNoneMatch);
+        }
+        return cliente.send(pedido.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static byte[] descomprimir(byte[] gzip) throws IOException {
+        try (InputStream entrada = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return entrada.readAllBytes();
+        }
+    }
+
+    // Se avisa como lo hace el controlador, así el snapshot se arma de nuevo
+    private List<PuntoDonacion> crearPuntos(int cantidad, EstadoPunto estado) {
+        List<PuntoDonacion> puntos = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            PuntoDonacion punto = new PuntoDonacion("Punto de donación " + i, "Avenida Colón " + (1000 + i) + ", Córdoba",
+                -31.4 + i * 0.001, -64.18, "[\"ropa\",\"alimentos\"]", null, null, "351 555-0000", "punto" + i + "@test.com", null);
+            punto.setActivo(true);
+            punto.setEstado(estado);
+            puntos.add(punto);
+        }
+        puntos = puntoDonacionRepository.saveAll(puntos);
+        for (PuntoDonacion punto : puntos) {
+            eventPublisher.publishEvent(PuntoDonacionCambiadoEvent.guardado(punto));
+        }
+        return puntos;
+    }
+}
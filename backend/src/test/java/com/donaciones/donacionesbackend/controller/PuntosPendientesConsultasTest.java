@@ -0,0 +1,109 @@
+package com.donaciones.donacionesbackend.controller;
+
+import com.donaciones.donacionesbackend.entity.EstadoPunto;
+import com.donaciones.donacionesbackend.entity.Organizacion;
+import com.donaciones.donacionesbackend.entity.PuntoDonacion;
+import com.donaciones.donacionesbackend.entity.Rol;
+import com.donaciones.donacionesbackend.repository.OrganizacionRepository;
+import com.donaciones.donacionesbackend.repository.PuntoDonacionRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /puntos-donacion/pendientes tiene que hacer siempre la misma cantidad de consultas,
+ * haya 2 pendientes o 40 (antes era una consulta más por cada punto para el nombre de la organización)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PuntosPendientesConsultasTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PuntoDonacionRepository puntoDonacionRepository;
+
+    @Autowired
+    private OrganizacionRepository organizacionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estadisticas;
+
+    @BeforeEach
+    void limpiar() {
+        puntoDonacionRepository.deleteAllInBatch();
+        organizacionRepository.deleteAllInBatch();
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void listaCompletaUsaUnaSolaConsultaSinImportarCuantosPendientesHay() throws Exception {
+        crearPendientes(2);
+        long conPocos = consultasDe("/puntos-donacion/pendientes", 2);
+
+        crearPendientes(38);
+        long conMuchos = consultasDe("/puntos-donacion/pendientes", 40);
+
+        assertThat(conPocos).isEqualTo(1);
+        assertThat(conMuchos).isEqualTo(conPocos);
+    }
+
+    @Test
+    void paginaUsaDosConsultasSinImportarElTamano() throws Exception {
+        crearPendientes(40);
+
+        long paginaChica = consultasDe("/puntos-donacion/pendientes?tamano=2", 2);
+        long paginaGrande = consultasDe("/puntos-donacion/pendientes?tamano=40", 40);
+
+        // La página y un solo findAllById con los nombres de sus organizaciones
+        assertThat(paginaChica).isEqualTo(2);
+        assertThat(paginaGrande).isEqualTo(paginaChica);
+    }
+
+    // Llama al endpoint, verifica cuántos puntos trajo con nombre de organización y devuelve las consultas
+    private long consultasDe(String url, int esperados) throws Exception {
+        estadisticas.clear();
+        boolean paginado = url.contains("tamano=");
+        String items = paginado ? "$.items" : "$";
+        mockMvc.perform(get(url))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath(items + ".length()").value(esperados))
+            .andExpect(jsonPath(items + "[0].nombreOrganizacion").isNotEmpty());
+        return estadisticas.getPrepareStatementCount();
+    }
+
+    // Cada punto de una organización distinta, así no hay cache que esconda una consulta por punto
+    private void crearPendientes(int cantidad) {
+        List<PuntoDonacion> puntos = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            Organizacion organizacion = organizacionRepository.save(new Organizacion(
+                "Organización " + i, "org" + System.nanoTime() + "@test.com", "clave", null));
+            PuntoDonacion punto = new PuntoDonacion("Punto " + i, "Calle " + i, -31.4, -64.18,
+                "[\"ropa\"]", null, null, null, null, null);
+            punto.setEstado(EstadoPunto.PENDIENTE);
+            punto.setUsuarioCreadorId(organizacion.getId());
+            punto.setTipoCreador(Rol.ORGANIZACION);
+            puntos.add(punto);
+        }
+        puntoDonacionRepository.saveAll(puntos);
+    }
+}
@@ -0,0 +1,70 @@
+package com.donaciones.donacionesbackend.service;
+
+import com.donaciones.donacionesbackend.entity.EstadoPunto;
+import com.donaciones.donacionesbackend.entity.PuntoDonacion;
+import com.donaciones.donacionesbackend.event.PuntoDonacionCambiadoEvent;
+import com.donaciones.donacionesbackend.repository.PuntoDonacionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * un cambio de punto que hace commit mientras se carga la grilla no se puede perder:
+ * tiene que esperar a que termine la carga y aplicarse encima
+ */
+class IndiceEspacialServiceTest {
+
+    @Test
+    void cambioDuranteLaCargaSeAplicaAlTerminar() throws Exception {
+        PuntoDonacionRepository repositorio = mock(PuntoDonacionRepository.class);
+        IndiceEspacialService indice = new IndiceEspacialService();
+        ReflectionTestUtils.setField(indice, "puntoDonacionRepository", repositorio);
+        ReflectionTestUtils.setField(indice, "celdaGrados", 0.05);
+
+        PuntoDonacion leido = punto(1L, -31.40);
+        PuntoDonacion aprobado = punto(2L, -31.41);
+        CountDownLatch cargando = new CountDownLatch(1);
+        CountDownLatch terminarCarga = new CountDownLatch(1);
+        // El SELECT de la carga ya tomó su snapshot (sin el punto 2) y queda frenado hasta que lo suelte
+        when(repositorio.findByActivoTrueAndEstado(EstadoPunto.ACTIVO)).thenAnswer(invocacion -> {
+            cargando.countDown();
+            terminarCarga.await(10, TimeUnit.SECONDS);
+            return List.of(leido);
+        });
+
+        Thread carga = new Thread(indice::inicializar);
+        carga.start();
+        assertThat(cargando.await(10, TimeUnit.SECONDS)).isTrue();
+
+        Thread evento = new Thread(() -> indice.onPuntoCambiado(PuntoDonacionCambiadoEvent.guardado(aprobado)));
+        evento.start();
+        // El evento tiene que quedar esperando el monitor de la carga, no descartarse
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (evento.getState() != Thread.State.BLOCKED && evento.isAlive() && System.nanoTime() < limite) {
+            Thread.sleep(5);
+        }
+        terminarCarga.countDown();
+        carga.join(10_000);
+        evento.join(10_000);
+
+        assertThat(indice.buscarCercanos(-31.40, -64.18, 5))
+            .extracting(PuntoDonacion::getId)
+            .containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    private static PuntoDonacion punto(Long id, double latitud) {
+        PuntoDonacion punto = new PuntoDonacion("Punto " + id, "Avenida Colón " + id + ", Córdoba", latitud, -64.18,
+            "[\"ropa\"]", null, null, "351 555-0000", "punto" + id + "@test.com", null);
+        punto.setId(id);
+        punto.setActivo(true);
+        punto.setEstado(EstadoPunto.ACTIVO);
+        return punto;
+    }
+}
@@ -0,0 +1,23 @@
+-- Script para agregar la máscara de bits de tipos de donación a puntos_donacion
+-- Cada tipo ocupa el bit de su posición en el enum TipoDonacion:
+-- ROPA = 1, VIDRIO = 2, PLASTICO = 4, PAPEL = 8, ORGANICOS = 16, OTROS = 32
+-- NOTA: no hace falta correrlo. El backend crea la columna y el índice (ddl-auto=update) y al arrancar
+-- MigracionTiposMaskService completa los tipos_mask en NULL con el mismo parser que usa al guardar.
+-- Queda como referencia de cómo se codifica la máscara; el LIKE de abajo puede no coincidir con el
+-- parser de Java (tildes, collation *_ci), así que ante cualquier diferencia vale lo que hace el backend
+
+-- 1. Agregar la columna si no existe
+ALTER TABLE puntos_donacion 
+ADD COLUMN IF NOT EXISTS tipos_mask INT NULL;
+
+-- 2. Convertir el JSON/texto de tipo_donacion de los puntos existentes
+UPDATE puntos_donacion SET tipos_mask =
+    (CASE WHEN LOWER(tipo_donacion) LIKE '%ropa%' THEN 1 ELSE 0 END) |
+    (CASE WHEN LOWER(tipo_donacion) LIKE '%vidrio%' THEN 2 ELSE 0 END) |
+    (CASE WHEN LOWER(tipo_donacion) LIKE '%plastico%' THEN 4 ELSE 0 END) |
+    (CASE WHEN LOWER(tipo_donacion) LIKE '%papel%' THEN 8 ELSE 0 END) |
+    (CASE WHEN LOWER(tipo_donacion) LIKE '%organicos%' THEN 16 ELSE 0 END) |
+    (CASE WHEN LOWER(tipo_donacion) LIKE '%otros%' THEN 32 ELSE 0 END);
+
+-- 3. Índice para los filtros por tipo (el backend consulta tipos_mask IN (...) AND activo)
+CREATE INDEX IF NOT EXISTS idx_puntos_tipos_mask ON puntos_donacion(tipos_mask, activo);
@@ -1,4 +1,4 @@
-import React, { useEffect, useState } from 'react';
+import React, { useEffect, useRef, useState } from 'react';
 import { MapContainer, TileLayer, Marker, Popup } from 'react-leaflet';
 import L from 'leaflet';
 import 'leaflet/dist/leaflet.css';
@@ -32,6 +32,16 @@ const parsearTiposDonacion = (tipoDonacion: string): string[] => {
   }
 };
 
+// Bit de cada tipo en tiposMask (mismo orden que el enum TipoDonacion del backend)
+const BITS_TIPO: Record<string, number> = {
+  'ropa': 1,
+  'vidrio': 2,
+  'plastico': 4,
+  'papel': 8,
+  'organicos': 16,
+  'otros': 32
+};
+
 // Formatea la hora: de "09:00:00" a "09:00 hs" (le quita los segundos)
 const formatearHorario = (horario: string | null | undefined): string => {
   if (!horario) return ''; // si no hay horario, devuelvo vacío
@@ -88,19 +98,21 @@ const crearIconoPersonalizado = (tipoDonacion: string) => {
   });
 };
 
+// /pines trae solo lo del marcador; el resto llega de /puntos-donacion/{id} al abrir el popup
 interface PuntoDonacion {
   id: number;
   nombre: string;
-  direccion: string;
+  direccion?: string;
   latitud: number;
   longitud: number;
   tipoDonacion: string;
+  tiposMask?: number | null; // máscara de bits que calcula el backend
   horarioApertura?: string;
   horarioCierre?: string;
   telefono?: string;
   email?: string;
-  activo: boolean;
-  fechaCreacion: string;
+  activo?: boolean;
+  fechaCreacion?: string;
 }
 
 // Componente del mapa interactivo con todos los puntos de donación
@@ -112,11 +124,20 @@ const MapaDonaciones: React.FC = () => {
   const [filtroActivo, setFiltroActivo] = useState<string>('todos'); // filtro seleccionado
   const [favoritos, setFavoritos] = useState<number[]>([]); // IDs de puntos favoritos
   const [usuario, setUsuario] = useState<any>(null); // usuario logueado
+  const versionCambios = useRef<number>(0); // última versión del registro de cambios que apliqué
+  const sincronizando = useRef(false); // true mientras hay un pedido de puntos o cambios en curso
+  const cambiosPendientes = useRef(false); // llegó un aviso que todavía no pedí
+  const [detalles, setDetalles] = useState<Record<number, PuntoDonacion>>({}); // detalle completo de los popups abiertos
 
   // Pide al backend la lista de puntos de donación
   const fetchPuntosDonacion = async () => {
     try {
-      const response = await api.get('/puntos-donacion'); // GET a la API
+      const response = await api.get('/puntos-donacion/pines'); // solo los datos de los marcadores
+      // Versión del registro de cambios de esta lista: el próximo /cambios pide solo lo posterior
+      const version = Number(response.headers['x-version-cambios']);
+      if (!Number.isNaN(version)) {
+        versionCambios.current = version;
+      }
       setPuntosDonacion(response.data || []); // guardo la lista completa
       setPuntosFiltrados(response.data || []); // al inicio muestro todos
       setLoading(false);
@@ -128,6 +149,68 @@ const MapaDonaciones: React.FC = () => {
     }
   };
 
+  // Trae solo lo que cambió desde la última versión (o la lista entera si el backend lo pide)
+  const fetchCambiosPuntos = async () => {
+    try {
+      const response = await api.get('/puntos-donacion/cambios', {
+        params: { desde: versionCambios.current }
+      });
+      const { version, completo, puntos, eliminados } = response.data;
+      if (completo) {
+        // Resincronización: la lista que manda son entidades completas; vuelvo a /pines (la lista liviana,
+        // que trae su propia versión) y descarto los detalles guardados porque pueden estar viejos
+        setDetalles({});
+        await fetchPuntosDonacion();
+        return;
+      }
+      versionCambios.current = version;
+      const idsCambiados = new Set<number>([...eliminados, ...puntos.map((p: PuntoDonacion) => p.id)]);
+      setPuntosDonacion(prev => [...prev.filter(p => !idsCambiados.has(p.id)), ...puntos]);
+      // Los cambios ya traen el punto completo, así que reemplazan el detalle que tenía guardado
+      setDetalles(prev => {
+        const nuevos = { ...prev };
+        eliminados.forEach((id: number) => delete nuevos[id]);
+        puntos.forEach((p: PuntoDonacion) => { nuevos[p.id] = p; });
+        return nuevos;
+      });
+    } catch (err: any) {
+      console.error('Error al actualizar puntos:', err);
+      await fetchPuntosDonacion(); // si falla, vuelvo a bajar la lista entera
+    }
+  };
+
+  // Como mucho un pedido a la vez: los avisos que llegan mientras tanto se juntan en un solo /cambios
+  const sincronizar = async () => {
+    if (sincronizando.current) return; // el pedido en curso vuelve a mirar al terminar
+    sincronizando.current = true;
+    try {
+      while (cambiosPendientes.current) {
+        cambiosPendientes.current = false;
+        await fetchCambiosPuntos();
+      }
+    } finally {
+      sincronizando.current = false;
+    }
+  };
+
+  // Aviso de un cambio; si trae versión y ya la apliqué no pido nada
+  const avisarCambio = (version?: number) => {
+    if (version !== undefined && !Number.isNaN(version) && version <= versionCambios.current) return;
+    cambiosPendientes.current = true;
+    sincronizar();
+  };
+
+  // Al abrir un popup pido el detalle del punto (dirección, contacto), una sola vez por punto
+  const cargarDetalle = async (id: number) => {
+    if (detalles[id]) return;
+    try {
+      const response = await api.get(`/puntos-donacion/${id}`);
+      setDetalles(prev => ({ ...prev, [id]: response.data }));
+    } catch (err: any) {
+      console.error('Error al cargar el detalle del punto:', err);
+    }
+  };
+
   // Al montar el mapa: cargo usuario, sus favoritos y los puntos
   useEffect(() => {
     // Leo el usuario guardado en el navegador
@@ -142,19 +225,40 @@ const MapaDonaciones: React.FC = () => {
       }
     }
 
-    // Traigo los puntos apenas se abre el mapa
-    fetchPuntosDonacion();
+    // Traigo los puntos apenas se abre el mapa; los avisos que lleguen antes esperan a que termine
+    sincronizando.current = true;
+    fetchPuntosDonacion().finally(() => {
+      sincronizando.current = false;
+      sincronizar();
+    });
 
-    // Si otra pantalla borra un punto, dispara este evento y recargo el mapa
+    // Si otra pantalla borra un punto, dispara este evento y pido solo los cambios
     const handlePuntoEliminado = () => {
-      fetchPuntosDonacion();
+      avisarCambio();
     };
 
     window.addEventListener('puntoEliminado', handlePuntoEliminado); // me suscribo al evento
 
+    // El backend avisa por SSE cuando un admin aprueba, rechaza, edita o borra un punto
+    const stream = new EventSource('/api/puntos-donacion/stream');
+    stream.addEventListener('punto', (evento: MessageEvent) => {
+      let version: number | undefined;
+      try {
+        version = Number(JSON.parse(evento.data).version);
+      } catch {
+        version = undefined; // sin versión, pido los cambios igual
+      }
+      avisarCambio(version);
+    });
+    // Se juntaron demasiados avisos y el servidor los reemplazó por este: pido todo lo posterior
+    stream.addEventListener('resync', () => {
+      avisarCambio();
+    });
+
     // Al desmontar el componente, quito el listener para no dejar basura
     return () => {
       window.removeEventListener('puntoEliminado', handlePuntoEliminado);
+      stream.close();
     };
   }, []); // [] = solo una vez al montar
 
@@ -209,7 +313,12 @@ const MapaDonaciones: React.FC = () => {
       setPuntosFiltrados(puntosDonacion); // muestro todos
     } else {
       // dejo solo los puntos cuyo tipo coincide con el filtro
+      const bit = BITS_TIPO[filtroActivo.toLowerCase()] || 0;
       const filtrados = puntosDonacion.filter(punto => {
+        // Si el backend ya mandó la máscara, no hace falta parsear el JSON
+        if (punto.tiposMask != null) {
+          return (punto.tiposMask & bit) !== 0;
+        }
         const tipos = parsearTiposDonacion(punto.tipoDonacion);
         return tipos.some(tipo => tipo.toLowerCase() === filtroActivo.toLowerCase());
       });
@@ -276,11 +385,15 @@ const MapaDonaciones: React.FC = () => {
           attribution='&copy; <a href="https://www.openstreetmap.org/copyright">OpenStreetMap</a> contributors'
         />
         {/* Recorro los puntos filtrados y dibujo un marcador por cada uno */}
-        {puntosFiltrados.map((punto) => (
+        {puntosFiltrados.map((pin) => {
+          const punto = detalles[pin.id] || pin; // detalle completo si ya lo pedí, si no el pin
+          const cargando = !detalles[pin.id];
+          return (
           <Marker
             key={punto.id} // key único por punto
             position={[punto.latitud, punto.longitud]} // coordenadas del marcador
             icon={crearIconoPersonalizado(punto.tipoDonacion)} // color según el tipo
+            eventHandlers={{ popupopen: () => cargarDetalle(pin.id) }} // el detalle se pide recién al abrirlo
           >
             <Popup
               closeButton={true}
@@ -303,7 +416,7 @@ const MapaDonaciones: React.FC = () => {
                 <div className="popup-info">
                   <div className="info-section">
                     <h4>📍 Ubicación</h4>
-                    <p>{punto.direccion}</p>
+                    <p>{cargando ? 'Cargando...' : punto.direccion}</p>
                   </div>
                   
                   <div className="info-section">
@@ -333,26 +446,28 @@ const MapaDonaciones: React.FC = () => {
                         </a>
                       </div>
                     )}
-                    {!punto.telefono && !punto.email && (
+                    {!cargando && !punto.telefono && !punto.email && (
                       <p>Información de contacto no disponible</p>
                     )}
                   </div>
                   
                   <div className="info-section">
                     <h4>ℹ️ Estado</h4>
-                    <span className={`estado-badge ${punto.activo ? 'activo' : 'inactivo'}`}>
-                      {punto.activo ? '✅ Activo' : '❌ Inactivo'}
+                    <span className={`estado-badge ${punto.activo !== false ? 'activo' : 'inactivo'}`}>
+                      {punto.activo !== false ? '✅ Activo' : '❌ Inactivo'}
                     </span>
                   </div>
                   
                   <div className="info-section">
                     <h4>📅 Información del Punto</h4>
                     <p><strong>ID:</strong> #{punto.id}</p>
-                    <p><strong>Registrado:</strong> {new Date(punto.fechaCreacion).toLocaleDateString('es-ES', {
-                      year: 'numeric',
-                      month: 'long',
-                      day: 'numeric'
-                    })}</p>
+                    {punto.fechaCreacion && (
+                      <p><strong>Registrado:</strong> {new Date(punto.fechaCreacion).toLocaleDateString('es-ES', {
+                        year: 'numeric',
+                        month: 'long',
+                        day: 'numeric'
+                      })}</p>
+                    )}
                   </div>
                 </div>
                 
@@ -401,7 +516,8 @@ const MapaDonaciones: React.FC = () => {
               </div>
             </Popup>
           </Marker>
-        ))}
+          );
+        })}
           </MapContainer>
         </div>
       </div>